@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Compare debit et p99 du backend en threads plateforme puis en threads virtuels.
+# Prerequis : JDK 21+ (threads virtuels), backend installe (../mvnw install -DskipTests)
+# et module benchmarks package (../mvnw package).
+# Sur un JRE 17, spring.threads.virtual.enabled est ignore : les deux passes sont alors
+# identiques (le script le signale dans la sortie).
+#
+# ./compare-threading-modes.sh [concurrence=500] [duree en s=60] [profil supplementaire]
+# ex : ./compare-threading-modes.sh 1000 60 prod
+set -euo pipefail
+
+cd "$(dirname "$0")"
+CONCURRENCY="${1:-500}"
+DURATION="${2:-60}"
+EXTRA_PROFILE="${3:-}"
+PORT=8080
+APP_JAR=$(ls ../target/backend-*-exec.jar | head -n 1)
+JAVA_VERSION=$(java -XshowSettings:properties -version 2>&1 \
+    | awk -F'= ' '/java.specification.version/ {print $2}')
+
+run_mode() {
+    local name="$1" profiles="$2"
+    echo "=== Mode : $name (profils : ${profiles:-default}, Java $JAVA_VERSION) ===" | tee "target/load-$name.txt"
+    if [[ "$name" == virtual && "${JAVA_VERSION%%.*}" -lt 21 ]]; then
+        echo "Attention : application-virtual-threads.properties est sans effet sur Java $JAVA_VERSION" \
+            "(threads virtuels a partir de Java 21) ; ce mode mesure les threads plateforme." \
+            | tee -a "target/load-$name.txt"
+    fi
+    java -jar "$APP_JAR" --server.port="$PORT" --spring.profiles.active="$profiles" \
+        --spring.jpa.show-sql=false > "target/app-$name.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+
+    until curl -sf "http://localhost:$PORT/api/books?limit=1" > /dev/null; do sleep 1; done
+
+    java -cp target/benchmarks.jar com.example.TP3_Pinia.benchmark.LoadScenario \
+        "http://localhost:$PORT" "$CONCURRENCY" "$DURATION" 10 | tee -a "target/load-$name.txt"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+mkdir -p target
+run_mode platform "${EXTRA_PROFILE}"
+run_mode virtual "virtual-threads${EXTRA_PROFILE:+,$EXTRA_PROFILE}"
@@ -0,0 +1,85 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.model.CvReview;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Jeux de donnees deterministes (graine fixe) pour que les mesures soient comparables
+// d'une version a l'autre.
+final class BenchmarkData {
+
+    static final String[] AUTHORS = {
+            "Victor Hugo", "Charles Baudelaire", "Emile Zola", "Albert Camus",
+            "George Sand", "Marcel Proust", "Moliere", "Simone de Beauvoir"
+    };
+
+    private static final String[] WORDS = {
+            "nuit", "mer", "jardin", "silence", "memoire", "voyage", "lumiere", "ombre",
+            "hiver", "peste", "etranger", "miserables", "fleurs", "chemin", "temps", "amour"
+    };
+
+    private static final BookCategory[] CATEGORIES = BookCategory.values();
+
+    private BenchmarkData() {
+    }
+
+    static List<Book> books(int count) {
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = capitalize(word(random)) + " " + word(random) + " " + word(random);
+            books.add(Book.builder()
+                    .title(title)
+                    .author(AUTHORS[random.nextInt(AUTHORS.length)])
+                    .isbn(String.format("978-%010d", i))
+                    .price(5 + random.nextInt(4500) / 100.0)
+                    .description(description(random, title))
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .publicationYear(1800 + random.nextInt(225))
+                    .build());
+        }
+        return books;
+    }
+
+    static List<CvReview> reviews(int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<CvReview> reviews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reviews.add(CvReview.builder()
+                    .id((long) i + 1)
+                    .authorName(AUTHORS[random.nextInt(AUTHORS.length)])
+                    .email("lecteur" + i + "@example.com")
+                    .comment("Tres beau parcours, " + word(random) + " et " + word(random) + ".")
+                    .rating(1 + random.nextInt(5))
+                    .createdAt(now.minusMinutes(i))
+                    .build());
+        }
+        return reviews;
+    }
+
+    // Resume de 200 a 1000 caracteres, comme une vraie fiche (colonne limitee a 1000)
+    private static String description(Random random, String title) {
+        int length = 200 + random.nextInt(801);
+        StringBuilder description = new StringBuilder(length + 40).append(title).append('.');
+        while (description.length() < length) {
+            description.append(" Un livre sur ").append(word(random)).append(", ")
+                    .append(word(random)).append(" et ").append(word(random)).append('.');
+        }
+        description.setLength(length);
+        return description.toString();
+    }
+
+    static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.dto.BookFieldSet;
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/books : requete + serialisation d'une page, sans le cache des pages.
+// - entity  : entite Book complete (avant : description incluse)
+// - summary : projection BookSummary (defaut actuel : description ni selectionnee ni chargee)
+// - sparse  : BookSummary reduit par ?fields=title,author,price,coverUrl
+// La taille JSON de chaque page est affichee au demarrage.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookListPayloadBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final Sort SORT = Sort.by("title").and(Sort.by("id"));
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private SeededCatalog catalog;
+    private BookRepository bookRepository;
+    private ObjectMapper objectMapper;
+    private BookFieldSet sparseFields;
+
+    @Setup
+    public void setUp() throws IOException {
+        catalog = new SeededCatalog(CATALOG_SIZE);
+        bookRepository = catalog.getBean(BookRepository.class);
+        objectMapper = catalog.getBean(ObjectMapper.class);
+        sparseFields = BookFieldSet.parse("title,author,price,coverUrl");
+
+        System.out.printf("%nTaille d'une page de %d livres : entity=%d o, summary=%d o, sparse=%d o%n",
+                pageSize, entity().length, summary().length, sparse().length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        catalog.close();
+    }
+
+    @Benchmark
+    public byte[] entity() {
+        List<Book> page = bookRepository.findAllBy(ScrollPosition.keyset(), Limit.of(pageSize), SORT, Book.class)
+                .getContent();
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] summary() {
+        List<BookSummary> page = bookRepository.findAllBy(ScrollPosition.keyset(), Limit.of(pageSize), SORT, BookSummary.class)
+                .getContent();
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] sparse() {
+        List<BookSummary> page = bookRepository.findAllBy(ScrollPosition.keyset(), Limit.of(pageSize), SORT, BookSummary.class)
+                .getContent();
+        return objectMapper.writeValueAsBytes(page.stream().map(sparseFields::select).toList());
+    }
+}
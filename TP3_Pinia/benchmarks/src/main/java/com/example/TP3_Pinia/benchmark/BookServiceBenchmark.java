@@ -0,0 +1,130 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.config.CacheConfig;
+import com.example.TP3_Pinia.dto.BookQuery;
+import com.example.TP3_Pinia.dto.BookSearchHit;
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.dto.BookSuggestion;
+import com.example.TP3_Pinia.dto.CursorPage;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.service.BookService;
+import com.example.TP3_Pinia.service.BookSortField;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.CacheManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Pages filtrees du catalogue (GET /api/books) et recherches de BookService sur une H2
+// en memoire pre-remplie. Le contexte Spring complet est demarre (JPA, index en memoire,
+// Lucene) ; les appels passent par le proxy du service comme depuis les controleurs.
+// Les caches de pages sont vides avant chaque appel : on mesure la requete, pas le cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    // Taille de page par defaut de GET /api/books
+    private static final int PAGE_SIZE = 50;
+
+    private SeededCatalog catalog;
+    private BookService bookService;
+    private CacheManager cacheManager;
+
+    @State(Scope.Thread)
+    public static class Queries {
+        private final Random random = new Random(7);
+        String author;
+        String word;
+        BookCategory category;
+        double minPrice;
+        int fromYear;
+
+        @Setup(Level.Invocation)
+        public void next() {
+            String name = BenchmarkData.AUTHORS[random.nextInt(BenchmarkData.AUTHORS.length)];
+            author = name.substring(name.indexOf(' ') + 1);
+            word = BenchmarkData.word(random);
+            category = BookCategory.values()[random.nextInt(BookCategory.values().length)];
+            // Memes bornes que BenchmarkData.books (prix 5-50, annees 1800-2024)
+            minPrice = 5 + random.nextInt(40);
+            fromYear = 1800 + random.nextInt(200);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        catalog = new SeededCatalog(catalogSize);
+        bookService = catalog.getBean(BookService.class);
+        cacheManager = catalog.getBean(CacheManager.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void evictPages() {
+        cacheManager.getCache(CacheConfig.BOOK_PAGES).clear();
+        cacheManager.getCache(CacheConfig.BOOK_SUMMARY_PAGES).clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        catalog.close();
+    }
+
+    // Filtre par categorie, tri par titre (requete JPA sans index en memoire)
+    @Benchmark
+    public CursorPage<Book> scrollByCategory(Queries queries) {
+        return bookService.scroll(BookQuery.builder()
+                .category(queries.category)
+                .limit(PAGE_SIZE)
+                .build());
+    }
+
+    @Benchmark
+    public CursorPage<BookSummary> scrollSummariesByAuthor(Queries queries) {
+        return bookService.scrollSummaries(BookQuery.builder()
+                .author(queries.author)
+                .limit(PAGE_SIZE)
+                .build());
+    }
+
+    // Tranche de prix : candidats lus dans BookRangeIndex puis charges par cle primaire
+    @Benchmark
+    public CursorPage<BookSummary> scrollSummariesByPriceRange(Queries queries) {
+        return bookService.scrollSummaries(BookQuery.builder()
+                .minPrice(queries.minPrice)
+                .maxPrice(queries.minPrice + 5)
+                .sort(BookSortField.PRICE)
+                .limit(PAGE_SIZE)
+                .build());
+    }
+
+    @Benchmark
+    public CursorPage<Book> scrollByCategoryAndYears(Queries queries) {
+        return bookService.scroll(BookQuery.builder()
+                .category(queries.category)
+                .fromYear(queries.fromYear)
+                .toYear(queries.fromYear + 25)
+                .sort(BookSortField.PUBLICATION_YEAR)
+                .limit(PAGE_SIZE)
+                .build());
+    }
+
+    @Benchmark
+    public List<BookSearchHit> fullTextSearch(Queries queries) {
+        return bookService.search(queries.word + " " + queries.author, 20);
+    }
+
+    @Benchmark
+    public List<BookSuggestion> suggest(Queries queries) {
+        return bookService.suggest(queries.word.substring(0, 3), 10);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.CvReview;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialisation Jackson des listes renvoyees par GET /api/books et GET /api/cv-reviews.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Book> books;
+    private List<CvReview> reviews;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        books = BenchmarkData.books(size);
+        reviews = BenchmarkData.reviews(size);
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeReviews() {
+        return objectMapper.writeValueAsBytes(reviews);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.security.JwtAuthenticationFilter;
+import com.example.TP3_Pinia.security.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cout par requete du filtre JWT :
+// - legacyFilter : filtre d'origine (cle reconstruite, double parsing, requete users)
+// - claimsFilter : filtre actuel (cle et parser partages, un parsing, aucun acces BDD)
+// La base est une H2 en memoire : le cout reel d'un aller-retour BDD est donc sous-estime.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "MaCleSecreteTresLonguePourJWTAvecAuMoins256Bits!";
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter claimsFilter;
+    private LegacyJwtAuthenticationFilter legacyFilter;
+    private String authorizationHeader;
+    private Connection keepAlive;
+
+    @Setup
+    public void setUp() throws SQLException {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 3_600_000);
+        authorizationHeader = "Bearer " + jwtUtils.generateToken("admin", "ROLE_ADMIN");
+        claimsFilter = new JwtAuthenticationFilter(jwtUtils, new SimpleMeterRegistry());
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:jwtbench");
+        // La base en memoire vit tant que cette connexion reste ouverte
+        keepAlive = dataSource.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(255) UNIQUE NOT NULL, password VARCHAR(255) NOT NULL, role VARCHAR(255))");
+            statement.execute("INSERT INTO users (username, password, role) "
+                    + "VALUES ('admin', '$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbench', 'ROLE_ADMIN')");
+        }
+
+        UserDetailsService userDetailsService = username -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "SELECT username, password, role FROM users WHERE username = ?")) {
+                statement.setString(1, username);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new UsernameNotFoundException(username);
+                    }
+                    return new User(rs.getString(1), rs.getString(2),
+                            List.of(new SimpleGrantedAuthority(rs.getString(3))));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        legacyFilter = new LegacyJwtAuthenticationFilter(SECRET, userDetailsService);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public Object legacyFilter() throws Exception {
+        return run(legacyFilter);
+    }
+
+    @Benchmark
+    public Object claimsFilter() throws Exception {
+        return run(claimsFilter);
+    }
+
+    private Object run(jakarta.servlet.Filter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilter(request, new MockHttpServletResponse(), NOOP_CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Generation, validation et lecture du sujet d'un jeton JWT (HS256).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "MaCleSecreteTresLonguePourJWTAvecAuMoins256Bits!";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 3_600_000);
+        token = jwtUtils.generateToken("admin", "ROLE_ADMIN");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("admin", "ROLE_ADMIN");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtils.extractUsername(token);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.TP3_Pinia.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Scenario de charge en boucle fermee contre une instance du backend deja demarree.
+// Chaque client virtuel enchaine des GET sur des endpoints non caches qui interrogent
+// la base a chaque appel (lecture groupee de livres par ids, avis par id, recherche plein
+// texte puis chargement des livres), puis on affiche debit, p50, p99 et erreurs (5xx / timeouts).
+// La liste des avis (/api/cv-reviews) et la liste paginee des livres sont exclues : elles sont
+// servies depuis RenderedResponseCache et ne mesureraient pas les appels bloquants a la base.
+// Les identifiants demandes sont ceux de l'instance visee, lus avant l'echauffement : sans avis
+// en base, les GET d'avis sont retires du melange (ils ne mesureraient que des 404).
+//
+// java -cp target/benchmarks.jar com.example.TP3_Pinia.benchmark.LoadScenario \
+//      [baseUrl=http://localhost:8080] [concurrence=500] [duree en s=60] [echauffement en s=10]
+public class LoadScenario {
+
+    private static final String[] QUERIES = {"roman", "fleurs", "miserables", "poesie", "classique"};
+
+    // Taille des lectures groupees (GET /api/books?ids=...)
+    private static final int BATCH_IDS = 20;
+
+    // Taille maximale d'une page de GET /api/books
+    private static final int PAGE_LIMIT = 200;
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+    // Identifiants existants, lus avant l'echauffement
+    private static long[] bookIds;
+    private static long[] reviewIds;
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .build();
+
+        bookIds = fetchBookIds(http, baseUrl);
+        reviewIds = fetchReviewIds(http, baseUrl);
+        if (bookIds.length == 0) {
+            throw new IllegalStateException("Catalogue vide : importer des livres (POST /api/books/bulk) avant le scenario");
+        }
+        System.out.printf("Donnees    : %d livres, %d avis%n", bookIds.length, reviewIds.length);
+        if (reviewIds.length == 0) {
+            System.out.println("Aucun avis : GET /api/cv-reviews/{id} retire du scenario");
+        }
+
+        System.out.printf("Echauffement : %d s, %d clients, %s%n", warmupSeconds, concurrency, baseUrl);
+        run(http, clients, baseUrl, concurrency, warmupSeconds);
+
+        System.out.printf("Mesure : %d s%n", durationSeconds);
+        Result result = run(http, clients, baseUrl, concurrency, durationSeconds);
+        clients.shutdownNow();
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("Requetes   : %d (erreurs : %d)%n", latencies.length, result.errors());
+        System.out.printf("Debit      : %.1f req/s%n", latencies.length / (double) durationSeconds);
+        System.out.printf("p50        : %.2f ms%n", percentile(latencies, 50) / 1e6);
+        System.out.printf("p99        : %.2f ms%n", percentile(latencies, 99) / 1e6);
+        System.out.printf("max        : %.2f ms%n", latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient http, ExecutorService clients, String baseUrl,
+                              int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result>> futures = new ArrayList<>();
+
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                LongList latencies = new LongList();
+                long errors = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + nextPath()))
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build();
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            errors++;
+                        }
+                    } catch (Exception e) {
+                        errors++;
+                    }
+                    latencies.add(System.nanoTime() - begin);
+                }
+                return new Result(latencies.toArray(), errors);
+            }));
+        }
+
+        start.countDown();
+        LongList all = new LongList();
+        long errors = 0;
+        for (Future<Result> future : futures) {
+            Result result = future.get();
+            for (long latency : result.latencies()) {
+                all.add(latency);
+            }
+            errors += result.errors();
+        }
+        return new Result(all.toArray(), errors);
+    }
+
+    private static String nextPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (random.nextInt(reviewIds.length > 0 ? 3 : 2)) {
+            case 0 -> "/api/books?ids=" + randomIds(random);
+            case 2 -> "/api/cv-reviews/" + reviewIds[random.nextInt(reviewIds.length)];
+            default -> "/api/books/search?q=" + QUERIES[random.nextInt(QUERIES.length)];
+        };
+    }
+
+    // Identifiants tires au hasard parmi les livres existants
+    private static String randomIds(ThreadLocalRandom random) {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < BATCH_IDS; i++) {
+            if (i > 0) {
+                ids.append(',');
+            }
+            ids.append(bookIds[random.nextInt(bookIds.length)]);
+        }
+        return ids.toString();
+    }
+
+    // Parcours de toutes les pages de GET /api/books (curseur dans X-Next-Cursor)
+    private static long[] fetchBookIds(HttpClient http, String baseUrl) throws Exception {
+        LongList ids = new LongList();
+        String cursor = null;
+        do {
+            String path = "/api/books?limit=" + PAGE_LIMIT
+                    + (cursor == null ? "" : "&after=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<String> response = get(http, baseUrl + path);
+            addIds(ids, response.body());
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (cursor != null);
+        return ids.toArray();
+    }
+
+    private static long[] fetchReviewIds(HttpClient http, String baseUrl) throws Exception {
+        LongList ids = new LongList();
+        addIds(ids, get(http, baseUrl + "/api/cv-reviews").body());
+        return ids.toArray();
+    }
+
+    private static HttpResponse<String> get(HttpClient http, String url) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " : " + response.statusCode());
+        }
+        return response;
+    }
+
+    private static void addIds(LongList ids, String json) {
+        for (JsonNode node : MAPPER.readTree(json)) {
+            ids.add(node.get("id").asLong());
+        }
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+
+    // Tableau de long extensible (evite le boxing de millions de mesures)
+    private static final class LongList {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.TP3_Pinia.benchmark;
+
+import com.example.TP3_Pinia.Tp3PiniaApplication;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.repository.BookRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Contexte Spring complet sur une H2 en memoire remplie avec BenchmarkData.books(size).
+// Les lots sont inseres comme un import (BookImportService) : BooksImportedEvent publie dans
+// la transaction du lot tient a jour journal, facettes, index en memoire et index Lucene.
+final class SeededCatalog implements AutoCloseable {
+
+    private static final int SEED_BATCH = 1000;
+
+    private final ConfigurableApplicationContext context;
+    private final Path indexDir;
+
+    SeededCatalog(int size) throws IOException {
+        indexDir = Files.createTempDirectory("bench-search-index");
+        context = SpringApplication.run(Tp3PiniaApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench" + size,
+                "--spring.h2.console.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--search.index-dir=" + indexDir,
+                "--logging.level.root=WARN");
+
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                context.getBean(PlatformTransactionManager.class));
+        List<Book> books = BenchmarkData.books(size);
+        for (int from = 0; from < books.size(); from += SEED_BATCH) {
+            List<Book> batch = books.subList(from, Math.min(from + SEED_BATCH, books.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.saveAll(batch);
+                context.publishEvent(new BooksImportedEvent(batch));
+            });
+        }
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        FileSystemUtils.deleteRecursively(indexDir.toFile());
+    }
+}
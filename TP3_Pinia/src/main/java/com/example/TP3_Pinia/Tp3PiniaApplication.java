@@ -2,8 +2,10 @@ package com.example.TP3_Pinia;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Tp3PiniaApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,47 @@
+package com.example.TP3_Pinia.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Livre par id
+    public static final String BOOKS = "books";
+
+    // Pages du catalogue par requete (filtre categorie / auteur / titre + tri + curseur)
+    public static final String BOOK_PAGES = "bookPages";
+
+    // Memes pages en projection BookSummary (listes sans description)
+    public static final String BOOK_SUMMARY_PAGES = "bookSummaryPages";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${catalog.cache.ttl}") Duration ttl,
+            @Value("${catalog.cache.books.maximum-size}") long booksMaximumSize,
+            @Value("${catalog.cache.pages.maximum-size}") long pagesMaximumSize) {
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(BOOKS, Caffeine.newBuilder()
+                .maximumSize(booksMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        for (String pages : new String[]{BOOK_PAGES, BOOK_SUMMARY_PAGES}) {
+            cacheManager.registerCustomCache(pages, Caffeine.newBuilder()
+                    .maximumSize(pagesMaximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build());
+        }
+        return cacheManager;
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.TP3_Pinia.config;
 
+import com.example.TP3_Pinia.security.BoundedPasswordEncoder;
+import com.example.TP3_Pinia.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +12,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordConfig {
 
+    // BCrypt (force reglable, les anciens hash sont mis a niveau au login),
+    // chronometre sur les threads du pool de hachage borne
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.strength:10}") int strength,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        // Par defaut : la moitie des coeurs pour l'authentification
+        int poolSize = threads > 0
+                ? threads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(
+                new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry),
+                poolSize, queueCapacity, meterRegistry);
     }
 }
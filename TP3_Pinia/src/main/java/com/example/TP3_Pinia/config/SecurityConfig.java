@@ -1,9 +1,16 @@
 package com.example.TP3_Pinia.config;
 
 import com.example.TP3_Pinia.security.JwtAuthenticationFilter;
+import com.example.TP3_Pinia.security.RateLimitFilter;
+import com.example.TP3_Pinia.security.RateLimitRule;
+import com.example.TP3_Pinia.security.RateLimitRule.ClientKey;
+import com.example.TP3_Pinia.security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -15,7 +22,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.web.cors.*;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -23,10 +32,54 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    // Limites par route (nombre de requetes / periode)
+    @Value("${rate-limit.login.capacity:10}")
+    private int loginCapacity;
+    @Value("${rate-limit.login.period:1m}")
+    private Duration loginPeriod;
+    @Value("${rate-limit.refresh.capacity:30}")
+    private int refreshCapacity;
+    @Value("${rate-limit.refresh.period:1m}")
+    private Duration refreshPeriod;
+    @Value("${rate-limit.reviews.capacity:5}")
+    private int reviewsCapacity;
+    @Value("${rate-limit.reviews.period:10m}")
+    private Duration reviewsPeriod;
 
     // @Lazy evite la dependance circulaire
-    public SecurityConfig(@Lazy JwtAuthenticationFilter jwtAuthFilter) {
+    public SecurityConfig(@Lazy JwtAuthenticationFilter jwtAuthFilter,
+                          RateLimiter rateLimiter,
+                          MeterRegistry meterRegistry) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Port de gestion (management.server.port) lie a une interface interne :
+    // scrape Prometheus et sondes sans jeton, le JWT utilisateur expire en 15 min.
+    // Jamais sur le port public : si les deux ports sont egaux, cette chaine ne s'applique pas
+    // et /actuator/** tombe sous la chaine JWT (authentification exigee).
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http,
+                                                     @Value("${server.port:8080}") int serverPort,
+                                                     @Value("${management.server.port}") int managementPort)
+            throws Exception {
+
+        http
+                .securityMatcher(request -> managementPort != serverPort
+                        && request.getLocalPort() == managementPort)
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/**").permitAll()
+                        .anyRequest().denyAll());
+
+        return http.build();
     }
 
     @Bean
@@ -48,8 +101,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Endpoints publics
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Export reserve a l'admin (avant la regle GET publique)
+                        .requestMatchers(HttpMethod.GET, "/api/books/export")
+                        .hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/books/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/books").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/covers/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/cv-reviews/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/cv-reviews").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/cv-reviews").authenticated()
@@ -65,6 +122,8 @@ public class SecurityConfig {
                         .hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/cv-reviews/**")
                         .hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**")
+                        .hasRole("ADMIN")
 
                         // Tout le reste necessite une authentification
                         .anyRequest().authenticated()
@@ -74,12 +133,30 @@ public class SecurityConfig {
                 .addFilterBefore(jwtAuthFilter,
                         UsernamePasswordAuthenticationFilter.class)
 
+                // Limitation de debit, apres le filtre JWT (meme position, ordre d'ajout conserve)
+                .addFilterBefore(rateLimitFilter(),
+                        UsernamePasswordAuthenticationFilter.class)
+
                 // Pour H2 Console
                 .headers(headers -> headers.frameOptions(f -> f.disable()));
 
         return http.build();
     }
 
+    // Limites par client sur les routes couteuses :
+    // login (BCrypt) par IP, ajout d'avis par utilisateur (ou IP)
+    // Pas un @Bean : il ne doit pas etre enregistre une seconde fois comme filtre servlet
+    private RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter(rateLimiter, List.of(
+                RateLimitRule.of("login", HttpMethod.POST, "/api/auth/login",
+                        ClientKey.IP, loginCapacity, loginPeriod),
+                RateLimitRule.of("refresh", HttpMethod.POST, "/api/auth/refresh",
+                        ClientKey.IP, refreshCapacity, refreshPeriod),
+                RateLimitRule.of("reviews", HttpMethod.POST, "/api/cv-reviews",
+                        ClientKey.USER, reviewsCapacity, reviewsPeriod)
+        ), meterRegistry);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(
             AuthenticationConfiguration config) throws Exception {
@@ -98,6 +175,8 @@ public class SecurityConfig {
                 "OPTIONS"
         ));
         config.setAllowedHeaders(Arrays.asList("*"));
+        // Curseur de pagination lisible par le frontend
+        config.setExposedHeaders(Arrays.asList("X-Next-Cursor", "Link", "Retry-After"));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source =
@@ -3,15 +3,17 @@ package com.example.TP3_Pinia.controller;
 
 import com.example.TP3_Pinia.dto.AuthResponse;
 import com.example.TP3_Pinia.dto.LoginRequest;
+import com.example.TP3_Pinia.dto.RefreshRequest;
 import com.example.TP3_Pinia.dto.UserResponse;
 import com.example.TP3_Pinia.model.User;
 import com.example.TP3_Pinia.security.JwtUtils;
+import com.example.TP3_Pinia.security.PasswordHashingRejectedException;
+import com.example.TP3_Pinia.service.RefreshTokenService;
 import com.example.TP3_Pinia.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -25,33 +27,44 @@ public class AuthController {
 
     private final UserService userService;
     private final JwtUtils jwtUtils;
-    private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
 
+    // =========================
+    // POST /api/auth/login
+    // Une requete utilisateur + un BCrypt ; renvoie un token d'acces court
+    // et un jeton de rafraichissement
+    // =========================
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        try {
-            // Authentifier l’utilisateur
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(),
-                            request.getPassword()
-                    )
-            );
-
-            // Generer le token
-            String token = jwtUtils.generateToken(request.getUsername());
-            User user = userService.findByUsername(request.getUsername());
+        return userService.authenticate(request.getUsername(), request.getPassword())
+                .<ResponseEntity<?>>map(user ->
+                        ResponseEntity.ok(authResponse(user, refreshTokenService.issue(user))))
+                .orElseGet(() -> ResponseEntity.status(401)
+                        .body(Map.of("error", "Identifiants invalides")));
+    }
 
-            return ResponseEntity.ok(new AuthResponse(
-                    token,
-                    user.getUsername(),
-                    user.getRole().name()
-            ));
+    // =========================
+    // POST /api/auth/refresh
+    // Echange le jeton de rafraichissement contre un nouveau couple de jetons
+    // (sans mot de passe ni BCrypt)
+    // =========================
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        return refreshTokenService.rotate(request.getRefreshToken())
+                .<ResponseEntity<?>>map(rotation ->
+                        ResponseEntity.ok(authResponse(rotation.getUser(), rotation.getRefreshToken())))
+                .orElseGet(() -> ResponseEntity.status(401)
+                        .body(Map.of("error", "Session expiree")));
+    }
 
-        } catch (AuthenticationException e) {
-            return ResponseEntity.status(401)
-                    .body(Map.of("error", "Identifiants invalides"));
-        }
+    // =========================
+    // POST /api/auth/logout
+    // Revoque la session du jeton de rafraichissement
+    // =========================
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/me")
@@ -62,4 +75,27 @@ public class AuthController {
                 user.getRole().name()
         ));
     }
+
+    // Pool de hachage sature : refus rapide plutot qu'attente sur un thread Tomcat
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Map<String, String>> hashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    private AuthResponse authResponse(User user, String refreshToken) {
+        // Le role voyage dans le token d'acces
+        String token = jwtUtils.generateToken(
+                user.getUsername(),
+                user.getRole().name()
+        );
+        return new AuthResponse(
+                token,
+                refreshToken,
+                jwtUtils.getExpiration() / 1000,
+                user.getUsername(),
+                user.getRole().name()
+        );
+    }
 }
@@ -1,15 +1,45 @@
 package com.example.TP3_Pinia.controller;
 
+import com.example.TP3_Pinia.dto.BookChanges;
+import com.example.TP3_Pinia.dto.BookFieldSet;
+import com.example.TP3_Pinia.dto.BookImportReport;
+import com.example.TP3_Pinia.dto.BookQuery;
+import com.example.TP3_Pinia.dto.BookSearchHit;
+import com.example.TP3_Pinia.dto.BookSuggestion;
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.dto.CursorPage;
 import com.example.TP3_Pinia.model.Book;
 import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.service.BookExportService;
+import com.example.TP3_Pinia.service.BookFacetCounts;
+import com.example.TP3_Pinia.service.BookFileFormat;
+import com.example.TP3_Pinia.service.BookImportService;
 import com.example.TP3_Pinia.service.BookService;
+import com.example.TP3_Pinia.service.BookSortField;
+import com.example.TP3_Pinia.service.CoverStorage;
+import com.example.TP3_Pinia.service.RenderedResponseCache;
+import com.example.TP3_Pinia.service.ResourceVersions;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.zip.GZIPOutputStream;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/books")
@@ -17,36 +47,303 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final ResourceVersions resourceVersions;
+    private final CoverStorage coverStorage;
+    private final RenderedResponseCache renderedResponseCache;
+
+    // Taille de page par defaut / maximale
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+
+    // Nombre maximal d'identifiants par lecture groupee
+    private static final int MAX_BATCH_IDS = 100;
+
+    // Entrees du journal des modifications par requete par defaut / maximal
+    private static final int DEFAULT_CHANGES_LIMIT = 500;
+    private static final int MAX_CHANGES_LIMIT = 1000;
+
+    // Nombre de suggestions par defaut / maximal
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 20;
+
+    // Nombre de resultats de recherche par defaut / maximal
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
 
     // =========================
     // GET /api/books (public)
-    // + filtres possibles: category, author, title
+    // + filtres combinables: category, author, title, minPrice, maxPrice, fromYear, toYear (bornes incluses)
+    // + pagination keyset: after (curseur opaque), limit
+    // + tri: sort (title, price, publicationYear, id), direction (asc, desc)
+    // + fields: champs renvoyes (ex: title,author,price) ; par defaut tout sauf description
+    // Le curseur de la page suivante est renvoye dans X-Next-Cursor et Link
+    // + GET conditionnel : 304 si le catalogue n'a pas change (ETag par variante / Last-Modified)
+    // + corps deja serialise (et gzip) servi depuis RenderedResponseCache
     // =========================
     @GetMapping
-    public ResponseEntity<List<Book>> getBooks(
+    public ResponseEntity<?> getBooks(
             @RequestParam(required = false) BookCategory category,
             @RequestParam(required = false) String author,
-            @RequestParam(required = false) String title
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer fromYear,
+            @RequestParam(required = false) Integer toYear,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "title") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
     ) {
-        if (category != null) {
-            return ResponseEntity.ok(bookService.findByCategory(category));
+        ResourceVersions.Version version = resourceVersions.books();
+        RenderedResponseCache.Rendered rendered;
+        try {
+            if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+                throw new IllegalArgumentException("minPrice doit etre inferieur ou egal a maxPrice");
+            }
+            if (fromYear != null && toYear != null && fromYear > toYear) {
+                throw new IllegalArgumentException("fromYear doit etre inferieur ou egal a toYear");
+            }
+            BookFieldSet fieldSet = BookFieldSet.parse(fields);
+            BookQuery query = BookQuery.builder()
+                    .category(category)
+                    .author(author)
+                    .title(title)
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .fromYear(fromYear)
+                    .toYear(toYear)
+                    .sort(BookSortField.from(sort))
+                    .direction(Sort.Direction.fromString(direction))
+                    .after(after)
+                    .limit(Math.max(1, Math.min(limit, MAX_LIMIT)))
+                    .build();
+
+            String key = RenderedResponseCache.key(RenderedResponseCache.BOOKS, "list",
+                    query.getCategory(), query.getAuthor(), query.getTitle(),
+                    query.getMinPrice(), query.getMaxPrice(), query.getFromYear(), query.getToYear(), query.getSort(),
+                    query.getDirection(), query.getAfter(), query.getLimit(),
+                    fieldSet != null ? fieldSet.canonical() : null);
+            rendered = renderedResponseCache.get(key, version);
+            if (rendered == null) {
+                rendered = renderBooks(key, version, query, fieldSet);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache());
+        String nextCursor = rendered.getNextCursor();
+        if (nextCursor != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", nextCursor)
+                    .toUriString();
+            response.header("X-Next-Cursor", nextCursor)
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return rendered.write(response, acceptEncoding, webRequest);
+    }
+
+    // Cache manquant : lecture + serialisation (et gzip) une seule fois pour cette version
+    private RenderedResponseCache.Rendered renderBooks(String key, ResourceVersions.Version version,
+                                                       BookQuery query, BookFieldSet fieldSet) {
+        // Entite complete seulement si la description est demandee
+        if (fieldSet != null && fieldSet.needsFullEntity()) {
+            CursorPage<Book> page = bookService.scroll(query);
+            List<?> items = page.getItems().stream().map(fieldSet::select).toList();
+            return renderedResponseCache.render(key, version, items, page.getNextCursor());
+        }
+        CursorPage<BookSummary> page = bookService.scrollSummaries(query);
+        List<?> items = fieldSet != null
+                ? page.getItems().stream().map(fieldSet::select).toList()
+                : page.getItems();
+        return renderedResponseCache.render(key, version, items, page.getNextCursor());
+    }
+
+    // =========================
+    // GET /api/books?ids=1,2,3 (public)
+    // Lecture groupee : un seul aller-retour et une seule requete IN
+    // Livres dans l'ordre demande + identifiants introuvables (missing)
+    // =========================
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getBooksByIds(@RequestParam List<Long> ids, WebRequest webRequest) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return ResponseEntity.badRequest().body("Aucun identifiant fourni");
         }
-        if (author != null && !author.isBlank()) {
-            return ResponseEntity.ok(bookService.searchByAuthor(author));
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest()
+                    .body("Maximum " + MAX_BATCH_IDS + " identifiants par requete");
         }
-        if (title != null && !title.isBlank()) {
-            return ResponseEntity.ok(bookService.searchByTitle(title));
+
+        ResourceVersions.Version version = resourceVersions.books();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookService.findAllByIds(distinctIds));
+    }
+
+    // =========================
+    // GET /api/books/suggest?q= (public)
+    // Autocompletion par prefixe sur titres et auteurs
+    // =========================
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestion>> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SUGGEST_LIMIT) int limit
+    ) {
+        int size = Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT));
+        return ResponseEntity.ok(bookService.suggest(q, size));
+    }
+
+    // =========================
+    // GET /api/books/facets (public)
+    // Nombre de livres par categorie, decennie de publication et tranche de prix
+    // + GET conditionnel : meme version que la liste du catalogue
+    // =========================
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetCounts.Snapshot> facets(WebRequest webRequest) {
+        ResourceVersions.Version version = resourceVersions.books();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
         }
-        return ResponseEntity.ok(bookService.findAll());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookService.facets());
+    }
+
+    // =========================
+    // POST /api/books/facets/reconcile (admin)
+    // Recalcul des facettes depuis la base (en plus de la reconciliation periodique)
+    // =========================
+    @PostMapping("/facets/reconcile")
+    public ResponseEntity<BookFacetCounts.Snapshot> reconcileFacets() {
+        return ResponseEntity.ok(bookService.reconcileFacets());
+    }
+
+    // =========================
+    // GET /api/books/changes?since=&limit= (public)
+    // Synchronisation incrementale : livres crees / modifies (upserts) et supprimes (deletions)
+    // depuis since ; rappeler avec nextSince tant que hasMore.
+    // Sans since : aucun changement, nextSince = dernier seq (apres un chargement complet)
+    // 410 si since est inconnu (autre base) ou plus ancien que la retention des suppressions :
+    // recharger tout le catalogue
+    // =========================
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "" + DEFAULT_CHANGES_LIMIT) int limit
+    ) {
+        long lastSeq = bookService.lastChangeSeq();
+        if (since == null) {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(new BookChanges(List.of(), List.of(), lastSeq, false));
+        }
+        if (since < 0) {
+            return ResponseEntity.badRequest().body("since doit etre positif");
+        }
+        if (since > lastSeq) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body("Journal inconnu, rechargez le catalogue");
+        }
+        if (since < bookService.changesHorizon()) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body("Journal expire, rechargez le catalogue");
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_CHANGES_LIMIT));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(bookService.changesSince(since, size));
+    }
+
+    // =========================
+    // GET /api/books/search?q= (public)
+    // Recherche plein texte (titre, auteur, description) classee par pertinence
+    // =========================
+    @GetMapping("/search")
+    public ResponseEntity<List<BookSearchHit>> search(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit
+    ) {
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return ResponseEntity.ok(bookService.search(q, size));
+    }
+
+    // =========================
+    // POST /api/books/search/reindex (admin)
+    // Reconstruction complete de l'index de recherche
+    // =========================
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Map<String, Long>> reindex() {
+        return ResponseEntity.ok(Map.of("indexed", bookService.reindex()));
+    }
+
+    // =========================
+    // GET /api/books/export (admin)
+    // Export du catalogue en flux : format=ndjson|csv, filtres category, fromYear, toYear
+    // gzip=true pour compresser la reponse
+    // =========================
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) BookCategory category,
+            @RequestParam(required = false) Integer fromYear,
+            @RequestParam(required = false) Integer toYear,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        BookFileFormat fileFormat;
+        try {
+            fileFormat = BookFileFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(output, 64 * 1024)) {
+                    bookExportService.export(compressed, fileFormat, category, fromYear, toYear);
+                }
+            } else {
+                bookExportService.export(output, fileFormat, category, fromYear, toYear);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"books." + fileFormat.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     // =========================
     // GET /api/books/{id} (public)
+    // + GET conditionnel (version du livre)
     // =========================
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        ResourceVersions.Version version = resourceVersions.book(id);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
         return bookService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(book -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .body(book))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -56,6 +353,9 @@ public class BookController {
     @PostMapping
     public ResponseEntity<?> createBook(@Valid @RequestBody Book book) {
 
+        // Creation uniquement : un id fourni ne doit pas ecraser un livre existant (PUT pour modifier)
+        book.setId(null);
+
         // Exemple de contrôle métier : ISBN unique
         if (bookService.existsByIsbn(book.getIsbn())) {
             return ResponseEntity.badRequest()
@@ -68,6 +368,19 @@ public class BookController {
                 .body(created);
     }
 
+    // =========================
+    // POST /api/books/bulk (admin)
+    // Import en masse : flux NDJSON (application/x-ndjson) ou CSV (text/csv)
+    // Renvoie le nombre de livres importes et les erreurs par ligne
+    // =========================
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<BookImportReport> bulkImport(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) throws IOException {
+        return ResponseEntity.ok(bookImportService.importBooks(body, BookFileFormat.from(contentType)));
+    }
+
     // =========================
     // PUT /api/books/{id} (admin)
     // =========================
@@ -81,6 +394,29 @@ public class BookController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // =========================
+    // PUT /api/books/{id}/cover (admin)
+    // Corps brut de l'image (JPEG, PNG ou GIF), stockee sur disque sous son empreinte
+    // coverUrl pointe ensuite vers /api/covers/{empreinte}.{ext}
+    // =========================
+    @PutMapping(value = "/{id}/cover", consumes = {"image/jpeg", "image/png", "image/gif"})
+    public ResponseEntity<?> uploadCover(@PathVariable Long id, InputStream body) throws IOException {
+        if (bookService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String name;
+        try {
+            name = coverStorage.store(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        return bookService.updateCover(id, "/api/covers/" + name)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     // =========================
     // DELETE /api/books/{id} (admin)
     // =========================
@@ -0,0 +1,156 @@
+package com.example.TP3_Pinia.controller;
+
+import com.example.TP3_Pinia.service.CoverStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/covers")
+@RequiredArgsConstructor
+public class CoverController {
+
+    // Attributs sendfile de Tomcat (connecteur NIO) : le noyau copie le fichier
+    // directement vers la socket, sans passer par la memoire de la JVM
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Nom = empreinte du contenu : la reponse ne change jamais
+    private static final String IMMUTABLE =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    private final CoverStorage coverStorage;
+
+    // =========================
+    // GET /api/covers/{name} (public)
+    // size=thumb : miniature (l'original en attendant qu'elle soit generee)
+    // + ETag, cache immutable, requetes partielles (Range: bytes=...)
+    // =========================
+    @GetMapping("/{name}")
+    public void getCover(
+            @PathVariable String name,
+            @RequestParam(required = false) String size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Optional<Path> original = coverStorage.resolve(name);
+        if (original.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean wantsThumbnail = "thumb".equals(size);
+        Optional<Path> thumbnail = wantsThumbnail ? coverStorage.resolveThumbnail(name) : Optional.empty();
+        Path file = thumbnail.orElse(original.get());
+        String hash = name.substring(0, name.indexOf('.'));
+        String etag = "\"" + hash + (thumbnail.isPresent() ? "-thumb" : "") + "\"";
+
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        response.setContentType(thumbnail.isPresent()
+                ? "image/jpeg"
+                : CoverStorage.ImageFormat.fromFileName(name).orElseThrow().getMediaType());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Miniature pas encore prete : l'original ne doit pas rester en cache a sa place
+        response.setHeader(HttpHeaders.CACHE_CONTROL, wantsThumbnail && thumbnail.isEmpty()
+                ? CacheControl.noCache().getHeaderValue()
+                : IMMUTABLE);
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        // Sans sendfile : transferTo (zero-copie quand la destination le permet)
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // Une seule plage "bytes=debut-fin", "bytes=debut-" ou "bytes=-suffixe"
+    // - {debut, fin exclusive} si satisfiable
+    // - tableau vide si l'en-tete est ignore (plages multiples, syntaxe inconnue) : reponse complete
+    // - null si la plage est hors du fichier (416)
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                return suffix > 0 && length > 0
+                        ? new long[]{Math.max(0, length - suffix), length}
+                        : null;
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            if (start >= length || end <= start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.example.TP3_Pinia.controller;
 
+import com.example.TP3_Pinia.dto.ReviewSubmission;
 import com.example.TP3_Pinia.model.CvReview;
 import com.example.TP3_Pinia.service.CvReviewService;
+import com.example.TP3_Pinia.service.CvReviewStatistics;
+import com.example.TP3_Pinia.service.RenderedResponseCache;
+import com.example.TP3_Pinia.service.ResourceVersions;
+import com.example.TP3_Pinia.service.ReviewIngestionRejectedException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/cv-reviews")
@@ -18,26 +29,49 @@ import java.util.Map;
 public class CvReviewController {
 
     private final CvReviewService cvReviewService;
+    private final ResourceVersions resourceVersions;
+    private final RenderedResponseCache renderedResponseCache;
 
     // =========================
     // GET /api/cv-reviews (public)
     // Récupérer tous les avis
+    // + GET conditionnel : 304 si aucun avis n'a change (ETag / Last-Modified)
     // =========================
     @GetMapping
-    public ResponseEntity<List<CvReview>> getAllReviews() {
-        return ResponseEntity.ok(cvReviewService.findAll());
+    public ResponseEntity<byte[]> getAllReviews(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        return rendered("all", cvReviewService::findAll, acceptEncoding, webRequest);
     }
 
     // =========================
     // GET /api/cv-reviews/stats (public)
-    // Récupérer les statistiques (moyenne, nombre d'avis)
+    // Récupérer les statistiques (moyenne, nombre d'avis, répartition des notes)
     // =========================
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("averageRating", cvReviewService.getAverageRating());
-        stats.put("totalReviews", cvReviewService.getReviewCount());
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<byte[]> getStats(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        return rendered("stats", () -> {
+            CvReviewStatistics.Snapshot snapshot = cvReviewService.getStatistics();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("averageRating", snapshot.getAverage());
+            stats.put("totalReviews", snapshot.getTotal());
+            stats.put("distribution", snapshot.getDistribution());
+            return stats;
+        }, acceptEncoding, webRequest);
+    }
+
+    // =========================
+    // GET /api/cv-reviews/stream (public)
+    // Flux temps reel (Server-Sent Events) : "snapshot" des avis recents a la connexion,
+    // puis "created", "updated", "deleted" ({"id": ...}) ; rejeu depuis Last-Event-ID
+    // =========================
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return cvReviewService.subscribe(lastEventId);
     }
 
     // =========================
@@ -50,12 +84,38 @@ public class CvReviewController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // =========================
+    // GET /api/cv-reviews/submissions/{trackingId} (public)
+    // Suivi d'un avis envoye en mode asynchrone : PENDING, STORED (+ reviewId) ou FAILED
+    // =========================
+    @GetMapping("/submissions/{trackingId}")
+    public ResponseEntity<ReviewSubmission> getSubmission(@PathVariable String trackingId) {
+        return cvReviewService.submissionStatus(trackingId)
+                .map(submission -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(submission))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     // =========================
     // POST /api/cv-reviews (public)
     // Créer un nouvel avis
+    // + mode asynchrone (reviews.write-behind.enabled) : 202 Accepted et identifiant de suivi,
+    //   503 si la file d'ecriture est pleine
     // =========================
     @PostMapping
     public ResponseEntity<?> createReview(@Valid @RequestBody CvReview review) {
+        // Creation uniquement : un id fourni ne doit pas ecraser un avis existant
+        review.setId(null);
+
+        if (cvReviewService.isWriteBehindEnabled()) {
+            ReviewSubmission submission = cvReviewService.submit(review);
+            return ResponseEntity
+                    .accepted()
+                    .location(URI.create("/api/cv-reviews/submissions/" + submission.getTrackingId()))
+                    .body(submission);
+        }
+
         CvReview created = cvReviewService.save(review);
         return ResponseEntity
                 .created(URI.create("/api/cv-reviews/" + created.getId()))
@@ -73,4 +133,24 @@ public class CvReviewController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    @ExceptionHandler(ReviewIngestionRejectedException.class)
+    public ResponseEntity<Map<String, String>> ingestionRejected(ReviewIngestionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Corps deja serialise pour la version courante des avis (rendu une seule fois en cas
+    // d'absence), puis GET conditionnel sur l'ETag de la variante servie (304 si a jour)
+    private ResponseEntity<byte[]> rendered(String name, Supplier<Object> body,
+                                            String acceptEncoding, WebRequest webRequest) {
+        ResourceVersions.Version version = resourceVersions.reviews();
+        String key = RenderedResponseCache.key(RenderedResponseCache.REVIEWS, name);
+        RenderedResponseCache.Rendered rendered = renderedResponseCache.get(key, version);
+        if (rendered == null) {
+            rendered = renderedResponseCache.render(key, version, body.get(), null);
+        }
+        return rendered.write(ResponseEntity.ok().cacheControl(CacheControl.noCache()), acceptEncoding, webRequest);
+    }
 }
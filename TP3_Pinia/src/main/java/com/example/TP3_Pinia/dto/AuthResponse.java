@@ -8,6 +8,9 @@ import lombok.Data;
 @AllArgsConstructor
 public class AuthResponse {
     private String token;
+    private String refreshToken;
+    // Duree de validite du token d'acces, en secondes
+    private long expiresIn;
     private String username;
     private String role;
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.example.TP3_Pinia.dto;
+
+import com.example.TP3_Pinia.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Resultat d'une lecture groupee par identifiants
+@Data
+@AllArgsConstructor
+public class BookBatch {
+
+    // Dans l'ordre des identifiants demandes (sans doublons)
+    private List<Book> books;
+
+    // Identifiants demandes mais introuvables
+    private List<Long> missing;
+}
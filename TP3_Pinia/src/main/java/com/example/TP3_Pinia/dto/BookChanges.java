@@ -0,0 +1,25 @@
+package com.example.TP3_Pinia.dto;
+
+import com.example.TP3_Pinia.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Delta du catalogue depuis un seq (GET /api/books/changes?since=)
+@Data
+@AllArgsConstructor
+public class BookChanges {
+
+    // Livres crees ou modifies (etat courant)
+    private List<Book> upserts;
+
+    // Identifiants des livres supprimes
+    private List<Long> deletions;
+
+    // A renvoyer dans since pour la requete suivante
+    private long nextSince;
+
+    // true : d'autres modifications restent a lire immediatement
+    private boolean hasMore;
+}
@@ -0,0 +1,88 @@
+package com.example.TP3_Pinia.dto;
+
+import com.example.TP3_Pinia.model.Book;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Champs demandes par ?fields=title,author,price (l'id est toujours renvoye)
+public final class BookFieldSet {
+
+    public static final List<String> FIELDS = List.of(
+            "id", "title", "author", "isbn", "price", "description",
+            "category", "publicationYear", "coverUrl");
+
+    private final Set<String> fields;
+
+    private BookFieldSet(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    // null si le parametre est absent (projection par defaut)
+    public static BookFieldSet parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("id");
+        for (String field : value.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Champ inconnu : " + name + " (autorises : " + FIELDS + ")");
+            }
+            fields.add(name);
+        }
+        return new BookFieldSet(fields);
+    }
+
+    // Forme canonique (ordre de FIELDS) : "title,id" et "id,title" donnent la meme cle de cache
+    public String canonical() {
+        return String.join(",", FIELDS.stream().filter(fields::contains).toList());
+    }
+
+    // La description n'est pas dans BookSummary : il faut alors l'entite complete
+    public boolean needsFullEntity() {
+        return fields.contains("description");
+    }
+
+    public Map<String, Object> select(Book book) {
+        return select(field -> switch (field) {
+            case "id" -> book.getId();
+            case "title" -> book.getTitle();
+            case "author" -> book.getAuthor();
+            case "isbn" -> book.getIsbn();
+            case "price" -> book.getPrice();
+            case "description" -> book.getDescription();
+            case "category" -> book.getCategory();
+            case "publicationYear" -> book.getPublicationYear();
+            default -> book.getCoverUrl();
+        });
+    }
+
+    public Map<String, Object> select(BookSummary book) {
+        return select(field -> switch (field) {
+            case "id" -> book.getId();
+            case "title" -> book.getTitle();
+            case "author" -> book.getAuthor();
+            case "isbn" -> book.getIsbn();
+            case "price" -> book.getPrice();
+            case "category" -> book.getCategory();
+            case "publicationYear" -> book.getPublicationYear();
+            case "coverUrl" -> book.getCoverUrl();
+            default -> throw new IllegalStateException("Champ absent de BookSummary : " + field);
+        });
+    }
+
+    private Map<String, Object> select(Function<String, Object> getter) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, getter.apply(field));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.TP3_Pinia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Compte rendu d'un import en masse
+@Data
+public class BookImportReport {
+
+    // Au-dela, les erreurs sont seulement comptees (memoire constante)
+    public static final int MAX_ERRORS = 1000;
+
+    private long imported;
+    private long rejected;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void reject(long line, String isbn, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, isbn, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String isbn;
+        private String message;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.TP3_Pinia.dto;
+
+import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.service.BookSortField;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+// Criteres d'une page du catalogue (filtres + tri + curseur)
+@Data
+@Builder
+public class BookQuery {
+    private BookCategory category;
+    private String author;
+    private String title;
+
+    // Bornes incluses, null = pas de borne (combinables entre elles et avec les autres filtres)
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer fromYear;
+    private Integer toYear;
+
+    @Builder.Default
+    private BookSortField sort = BookSortField.TITLE;
+
+    @Builder.Default
+    private Sort.Direction direction = Sort.Direction.ASC;
+
+    // Curseur opaque renvoye par la page precedente (null = premiere page)
+    private String after;
+
+    private int limit;
+
+    public boolean hasRange() {
+        return minPrice != null || maxPrice != null || fromYear != null || toYear != null;
+    }
+
+    public boolean hasFilter() {
+        return category != null || hasRange()
+                || (author != null && !author.isBlank())
+                || (title != null && !title.isBlank());
+    }
+}
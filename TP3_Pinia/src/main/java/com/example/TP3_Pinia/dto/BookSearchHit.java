@@ -0,0 +1,14 @@
+package com.example.TP3_Pinia.dto;
+
+import com.example.TP3_Pinia.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookSearchHit {
+    private Book book;
+
+    // Score de pertinence BM25
+    private float score;
+}
@@ -0,0 +1,20 @@
+package com.example.TP3_Pinia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookSuggestion {
+
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+
+    private String text;
+    private Type type;
+
+    // Livre correspondant (uniquement pour les titres)
+    private Long bookId;
+}
@@ -0,0 +1,19 @@
+package com.example.TP3_Pinia.dto;
+
+import com.example.TP3_Pinia.model.BookCategory;
+import lombok.Value;
+
+// Projection des listes du catalogue : toutes les colonnes sauf la description
+// (jusqu'a 1000 caracteres), jamais selectionnee ni chargee pour une liste.
+// Le livre complet reste servi par GET /api/books/{id}.
+@Value
+public class BookSummary {
+    Long id;
+    String title;
+    String author;
+    String isbn;
+    double price;
+    BookCategory category;
+    Integer publicationYear;
+    String coverUrl;
+}
@@ -0,0 +1,15 @@
+package com.example.TP3_Pinia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+
+    // null quand il n'y a plus de page suivante
+    private String nextCursor;
+}
@@ -0,0 +1,8 @@
+package com.example.TP3_Pinia.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    private String refreshToken;
+}
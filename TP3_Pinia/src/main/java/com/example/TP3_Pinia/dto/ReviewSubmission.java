@@ -0,0 +1,25 @@
+package com.example.TP3_Pinia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Suivi d'un avis recu en mode asynchrone (202 Accepted)
+@Data
+@AllArgsConstructor
+public class ReviewSubmission {
+
+    public enum Status {
+        // En file d'attente, pas encore en base
+        PENDING,
+        // Enregistre : reviewId renseigne
+        STORED,
+        // Insertion impossible (erreur base)
+        FAILED
+    }
+
+    private String trackingId;
+    private Status status;
+
+    // null tant que l'avis n'est pas enregistre
+    private Long reviewId;
+}
@@ -0,0 +1,22 @@
+package com.example.TP3_Pinia.event;
+
+import com.example.TP3_Pinia.model.Book;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Publie par BookService dans la transaction de chaque ecriture en base.
+// BookChangeLog l'enregistre avant la validation (meme transaction) ; les index et caches
+// en memoire l'appliquent apres la validation (@TransactionalEventListener, fallbackExecution)
+// et ignorent donc une ecriture annulee.
+@Getter
+@RequiredArgsConstructor
+public class BookChangedEvent {
+
+    private final ChangeType type;
+
+    // Etat enregistre (ou livre supprime pour DELETED)
+    private final Book book;
+
+    // Etat precedent pour UPDATED, null sinon
+    private final Book previous;
+}
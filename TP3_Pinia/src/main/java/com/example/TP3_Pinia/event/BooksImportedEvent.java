@@ -0,0 +1,18 @@
+package com.example.TP3_Pinia.event;
+
+import com.example.TP3_Pinia.model.Book;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+// Publie par BookImportService une fois par lot importe (au lieu d'un BookChangedEvent
+// CREATED par livre) : index, caches et journal sont mis a jour une seule fois par lot.
+// Memes phases transactionnelles que BookChangedEvent.
+@Getter
+@RequiredArgsConstructor
+public class BooksImportedEvent {
+
+    // Livres crees par le lot (ids attribues)
+    private final List<Book> books;
+}
@@ -0,0 +1,7 @@
+package com.example.TP3_Pinia.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
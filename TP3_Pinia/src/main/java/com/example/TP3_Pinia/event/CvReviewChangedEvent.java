@@ -0,0 +1,19 @@
+package com.example.TP3_Pinia.event;
+
+import com.example.TP3_Pinia.model.CvReview;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Publie par CvReviewService apres chaque ecriture en base
+@Getter
+@RequiredArgsConstructor
+public class CvReviewChangedEvent {
+
+    private final ChangeType type;
+
+    // Etat enregistre (ou avis supprime pour DELETED)
+    private final CvReview review;
+
+    // Etat precedent pour UPDATED, null sinon
+    private final CvReview previous;
+}
@@ -3,17 +3,22 @@ package com.example.TP3_Pinia.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "books")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Book {
 
+    // Sequence avec allocation par blocs : permet a Hibernate de regrouper
+    // les INSERT en lots JDBC (impossible avec IDENTITY)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Le titre est obligatoire")
@@ -40,7 +45,9 @@ public class Book {
     @Column(length = 1000)
     private String description;
 
+    // VARCHAR plutot que le type ENUM natif d'H2 : meme colonne que les migrations
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column()
     private BookCategory category;
 
@@ -0,0 +1,45 @@
+package com.example.TP3_Pinia.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+// Entree du journal des modifications du catalogue (GET /api/books/changes).
+// seq croissant dans l'ordre des validations : un client reprend apres le dernier seq recu.
+// Compactage : seule la derniere entree de chaque livre est conservee.
+@Entity
+@Table(name = "book_changes", indexes = {
+        @Index(name = "idx_book_changes_book_id", columnList = "bookId, seq")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookChange {
+
+    public enum Kind {
+        // Livre cree ou modifie : etat courant a recharger
+        UPSERT,
+        // Livre supprime (conserve apres compactage)
+        DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    // Pas de cle etrangere : l'entree survit a la suppression du livre
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 10)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+}
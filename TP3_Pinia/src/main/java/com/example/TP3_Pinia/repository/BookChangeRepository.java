@@ -0,0 +1,44 @@
+package com.example.TP3_Pinia.repository;
+
+import com.example.TP3_Pinia.model.BookChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    // Page du journal apres un seq, limitee aux entrees stabilisees (cle primaire : parcours d'index)
+    List<BookChange> findBySeqGreaterThanAndChangedAtLessThanEqualOrderBySeq(long since, Instant settled, Limit limit);
+
+    // Derniere entree stabilisee (parcours decroissant de la cle primaire, arret a la premiere)
+    Optional<BookChange> findFirstByChangedAtLessThanEqualOrderBySeqDesc(Instant settled);
+
+    // Dernier seq (0 si le journal est vide)
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM BookChange c")
+    long findLastSeq();
+
+    // Compactage : supprime les entrees remplacees par une entree plus recente du meme livre
+    @Modifying
+    @Query("DELETE FROM BookChange c WHERE EXISTS "
+            + "(SELECT 1 FROM BookChange n WHERE n.bookId = c.bookId AND n.seq > c.seq)")
+    int deleteSuperseded();
+
+    // Plus grand seq des suppressions anterieures a cutoff (0 si aucune)
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM BookChange c WHERE c.kind = :kind AND c.changedAt < :cutoff")
+    long findLastSeqBefore(@Param("kind") BookChange.Kind kind, @Param("cutoff") Instant cutoff);
+
+    // Purge des suppressions expirees, sauf la plus recente (borne du journal, voir BookChangeLog)
+    @Modifying
+    @Query("DELETE FROM BookChange c WHERE c.kind = :kind AND c.changedAt < :cutoff AND c.seq < :horizon")
+    int deleteExpired(@Param("kind") BookChange.Kind kind,
+                      @Param("cutoff") Instant cutoff,
+                      @Param("horizon") long horizon);
+}
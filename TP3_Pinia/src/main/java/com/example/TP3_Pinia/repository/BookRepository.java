@@ -2,17 +2,69 @@ package com.example.TP3_Pinia.repository;
 
 import com.example.TP3_Pinia.model.Book;
 import com.example.TP3_Pinia.model.BookCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     List<Book> findByCategory(BookCategory category);
     List<Book> findByAuthorContainingIgnoreCase(String author);
     List<Book> findByTitleContainingIgnoreCase(String title);
     Optional<Book> findByIsbn(String isbn);
     boolean existsByIsbn(String isbn);
+
+    // ISBN deja presents parmi un lot (import en masse)
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    // Lecture en flux pour l'export (a consommer dans une transaction, puis fermer)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b"
+            + " WHERE (:category IS NULL OR b.category = :category)"
+            + " AND (:fromYear IS NULL OR b.publicationYear >= :fromYear)"
+            + " AND (:toYear IS NULL OR b.publicationYear <= :toYear)"
+            + " ORDER BY b.id")
+    Stream<Book> streamForExport(@Param("category") BookCategory category,
+                                 @Param("fromYear") Integer fromYear,
+                                 @Param("toYear") Integer toYear);
+
+    // Chargement initial des facettes (agregats, aucun livre charge)
+    @Query("SELECT b.category, COUNT(b) FROM Book b GROUP BY b.category")
+    List<Object[]> countByCategory();
+
+    @Query("SELECT b.publicationYear, COUNT(b) FROM Book b GROUP BY b.publicationYear")
+    List<Object[]> countByPublicationYear();
+
+    // Chargement de l'index des plages (id, prix, annee, categorie ; aucune entite chargee)
+    @Query("SELECT b.id, b.price, b.publicationYear, b.category FROM Book b")
+    List<Object[]> findRangeKeys();
+
+    long countByPriceGreaterThanEqualAndPriceLessThan(double min, double max);
+    long countByPriceGreaterThanEqual(double min);
+
+    // Pagination keyset (curseur) : taille de page bornee, pas d'OFFSET
+    Window<Book> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    // Meme pagination avec projection au choix (Book ou BookSummary sans description)
+    <T> Window<T> findAllBy(ScrollPosition position, Limit limit, Sort sort, Class<T> type);
+    // Filtres combines (categorie, auteur, titre, plages de prix / d'annee) : BookSpecifications
 }
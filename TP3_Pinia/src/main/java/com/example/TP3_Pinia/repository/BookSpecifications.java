@@ -0,0 +1,62 @@
+package com.example.TP3_Pinia.repository;
+
+import com.example.TP3_Pinia.dto.BookQuery;
+import com.example.TP3_Pinia.model.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+// Filtres combines du catalogue (ET logique) pour la pagination keyset par Specification.
+// Les bornes de prix / d'annee s'appuient sur les index composites (categorie, prix|annee, id).
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    // ids : candidats deja restreints par BookRangeIndex (null = pas de restriction)
+    public static Specification<Book> matching(BookQuery query, Collection<Long> ids) {
+        return (root, criteria, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (ids != null) {
+                predicates.add(root.get("id").in(ids));
+            }
+            if (query.getCategory() != null) {
+                predicates.add(cb.equal(root.get("category"), query.getCategory()));
+            }
+            if (query.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), query.getMinPrice()));
+            }
+            if (query.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), query.getMaxPrice()));
+            }
+            if (query.getFromYear() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("publicationYear"), query.getFromYear()));
+            }
+            if (query.getToYear() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("publicationYear"), query.getToYear()));
+            }
+            if (query.getAuthor() != null && !query.getAuthor().isBlank()) {
+                predicates.add(containsIgnoreCase(cb, root.get("author"), query.getAuthor()));
+            }
+            if (query.getTitle() != null && !query.getTitle().isBlank()) {
+                predicates.add(containsIgnoreCase(cb, root.get("title"), query.getTitle()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Meme semantique que ...ContainingIgnoreCase (jokers % et _ echappes)
+    private static Predicate containsIgnoreCase(CriteriaBuilder cb, Expression<String> value, String part) {
+        String escaped = part.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return cb.like(cb.lower(value), "%" + escaped + "%", '\\');
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.TP3_Pinia.repository;
 
 import com.example.TP3_Pinia.model.CvReview;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -13,10 +14,17 @@ public interface CvReviewRepository extends JpaRepository<CvReview, Long> {
     // Récupérer tous les avis triés par date (plus récent en premier)
     List<CvReview> findAllByOrderByCreatedAtDesc();
     
+    // Avis les plus recents (amorce du flux temps reel)
+    List<CvReview> findAllByOrderByCreatedAtDesc(Limit limit);
+
     // Calculer la moyenne des notes
     @Query("SELECT AVG(r.rating) FROM CvReview r")
     Double getAverageRating();
     
     // Compter le nombre total d'avis
     long count();
+
+    // Nombre d'avis par note (chargement initial des statistiques)
+    @Query("SELECT r.rating, COUNT(r) FROM CvReview r GROUP BY r.rating")
+    List<Object[]> countByRating();
 }
@@ -1,25 +1,47 @@
 package com.example.TP3_Pinia.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String TIMER_NAME = "security.jwt.filter";
+
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+
+    // Temps passe dans le filtre (hors reste de la chaine), par resultat
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, MeterRegistry meterRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.authenticatedTimer = timer(meterRegistry, "authenticated");
+        this.rejectedTimer = timer(meterRegistry, "rejected");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(TIMER_NAME)
+                .description("Validation du token JWT")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(
@@ -36,25 +58,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        long start = System.nanoTime();
+
         // 3. Extraire le token (sans le prefixe "Bearer ")
         String token = authHeader.substring(7);
 
-        // 4. Valider le token et authentifier l’utilisateur
-        if (jwtUtils.validateToken(token)) {
-            String username = jwtUtils.extractUsername(token);
-            UserDetails userDetails = userDetailsService
-                    .loadUserByUsername(username);
+        // 4. Valider le token (un seul parsing) et lire les claims
+        Claims claims = jwtUtils.parseToken(token).orElse(null);
+        String role = claims != null
+                ? claims.get(JwtUtils.ROLE_CLAIM, String.class)
+                : null;
+
+        // Les anciens tokens sans claim "role" ne sont plus acceptes
+        if (claims != null && claims.getSubject() != null && role != null) {
+
+            // 5. Construire l’utilisateur depuis les claims (pas d’acces BDD)
+            UserDetails userDetails = new User(
+                    claims.getSubject(),
+                    "",
+                    List.of(new SimpleGrantedAuthority(role)));
 
-            // 5. Creer l’objet Authentication
+            // 6. Creer l’objet Authentication
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
 
-            // 6. Placer dans le SecurityContext
+            // 7. Placer dans le SecurityContext
             SecurityContextHolder.getContext()
                     .setAuthentication(authentication);
+            authenticatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.example.TP3_Pinia.security;
+
+// File d'attente du hachage pleine : la requete doit etre refusee (503)
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Service d'authentification sature, reessayez plus tard");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.TP3_Pinia.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Applique les regles de limitation declarees dans SecurityConfig.
+// Place apres JwtAuthenticationFilter : l'utilisateur authentifie est deja connu.
+// Depassement : 429 + Retry-After (secondes).
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final List<RateLimitRule> rules;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimiter rateLimiter, List<RateLimitRule> rules, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.rules = List.copyOf(rules);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        for (RateLimitRule rule : rules) {
+            if (!rule.matches(request)) {
+                continue;
+            }
+
+            long waitNanos = rateLimiter.tryAcquire(rule.getName() + '|' + clientKey(rule, request), rule.getLimit());
+            if (waitNanos > 0) {
+                rejected(rule).increment();
+                long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Trop de requetes, reessayez dans " + retryAfter + " s\"}");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clientKey(RateLimitRule rule, HttpServletRequest request) {
+        if (rule.getClientKey() == RateLimitRule.ClientKey.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private Counter rejected(RateLimitRule rule) {
+        return Counter.builder("http.rate_limit.rejected")
+                .description("Requetes refusees par la limitation de debit")
+                .tag("rule", rule.getName())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.TP3_Pinia.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Duration;
+
+// Limite appliquee a une route, par adresse IP ou par utilisateur authentifie
+@Getter
+public class RateLimitRule {
+
+    public enum ClientKey {
+        // Adresse du client
+        IP,
+        // Utilisateur authentifie (adresse du client a defaut)
+        USER
+    }
+
+    private final String name;
+    private final RequestMatcher matcher;
+    private final ClientKey clientKey;
+    private final RateLimiter.Limit limit;
+
+    private RateLimitRule(String name, HttpMethod method, String pattern,
+                          ClientKey clientKey, RateLimiter.Limit limit) {
+        this.name = name;
+        this.matcher = PathPatternRequestMatcher.withDefaults().matcher(method, pattern);
+        this.clientKey = clientKey;
+        this.limit = limit;
+    }
+
+    // ex : RateLimitRule.of("login", HttpMethod.POST, "/api/auth/login", ClientKey.IP, 5, Duration.ofMinutes(1))
+    public static RateLimitRule of(String name, HttpMethod method, String pattern,
+                                   ClientKey clientKey, int capacity, Duration period) {
+        return new RateLimitRule(name, method, pattern, clientKey, RateLimiter.Limit.of(capacity, period));
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        return matcher.matches(request);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.TP3_Pinia.security;
+
+import lombok.Getter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Limiteur "token bucket" en memoire, sans verrou :
+// - un seau par cle (regle + client) dans une ConcurrentHashMap (verrouillage par segment
+//   uniquement a la creation du seau)
+// - l'etat d'un seau tient dans un seul long (algorithme GCRA : instant theorique ou le seau
+//   sera de nouveau plein), mis a jour par compareAndSet
+// - un seau plein est identique a un seau absent : les seaux inactifs sont purges periodiquement
+@Component
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // capacity jetons au maximum, recharges a raison de capacity par period
+    @Getter
+    public static class Limit {
+        private final int capacity;
+        private final Duration period;
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        private Limit(int capacity, Duration period) {
+            if (capacity < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Limite invalide : " + capacity + " / " + period);
+            }
+            this.capacity = capacity;
+            this.period = period;
+            this.intervalNanos = period.toNanos() / capacity;
+            this.burstNanos = intervalNanos * (capacity - 1);
+        }
+
+        public static Limit of(int capacity, Duration period) {
+            return new Limit(capacity, period);
+        }
+    }
+
+    // Consomme un jeton : 0 si accepte, sinon delai (ns) avant le prochain jeton disponible
+    public long tryAcquire(String key, Limit limit) {
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = bucket.get();
+            // Seau plein (instant depasse) : on repart de maintenant
+            long tat = current - now < 0 ? now : current;
+            long wait = tat - now - limit.getBurstNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(current, tat + limit.getIntervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    // Purge des seaux redevenus pleins (aucun effet sur les limites)
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:PT1M}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        buckets.forEach((key, bucket) -> {
+            if (bucket.get() - now <= 0) {
+                buckets.remove(key, bucket);
+            }
+        });
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
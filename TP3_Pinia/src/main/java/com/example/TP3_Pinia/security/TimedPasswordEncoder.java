@@ -0,0 +1,51 @@
+package com.example.TP3_Pinia.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Mesure le cout du hachage (inscription, utilisateur inconnu au login)
+// et de la verification des mots de passe (login)
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = Timer.builder("security.password.encode")
+                .description("Hachage d'un mot de passe")
+                .register(meterRegistry);
+        this.matchTimer = matchesTimer(meterRegistry, "match");
+        this.mismatchTimer = matchesTimer(meterRegistry, "mismatch");
+    }
+
+    private static Timer matchesTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.password.matches")
+                .description("Verification d'un mot de passe")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
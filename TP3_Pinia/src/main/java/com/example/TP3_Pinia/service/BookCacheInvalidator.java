@@ -0,0 +1,58 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.config.CacheConfig;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Invalidation du cache du catalogue apres une ecriture :
+// - l'entree du livre modifie (precise)
+// - les pages des versions precedentes : cles par version (BookService.PageKey), elles ne
+//   sont deja plus lues ; on libere seulement la place sans attendre l'expiration
+@Component
+@RequiredArgsConstructor
+public class BookCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ResourceVersions resourceVersions;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        cache(CacheConfig.BOOKS).evict(event.getBook().getId());
+        evictStalePages();
+    }
+
+    // Lot importe : un seul parcours des pages pour tout le lot. Les entrees BOOKS des
+    // nouveaux identifiants sont retirees aussi : findById met en cache Optional.empty(),
+    // un GET anterieur a l'import renverrait sinon 404 jusqu'a l'expiration
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        Cache books = cache(CacheConfig.BOOKS);
+        event.getBooks().forEach(book -> books.evict(book.getId()));
+        evictStalePages();
+    }
+
+    // Apres ResourceVersions (@Order) : la version courante est deja la nouvelle
+    private void evictStalePages() {
+        String current = resourceVersions.books().getEtag();
+        for (String name : new String[]{CacheConfig.BOOK_PAGES, CacheConfig.BOOK_SUMMARY_PAGES}) {
+            @SuppressWarnings("unchecked")
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> pages =
+                    (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache(name).getNativeCache();
+            pages.asMap().keySet().removeIf(key ->
+                    !(key instanceof BookService.PageKey page) || !page.version().equals(current));
+        }
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache inconnu : " + name);
+        }
+        return cache;
+    }
+}
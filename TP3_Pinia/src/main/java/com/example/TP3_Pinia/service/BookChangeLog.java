@@ -0,0 +1,167 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookChanges;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookChange;
+import com.example.TP3_Pinia.repository.BookChangeRepository;
+import com.example.TP3_Pinia.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Journal des modifications du catalogue, alimente par BookChangedEvent.
+// Chaque entree est inseree dans la transaction de l'ecriture (juste avant sa validation) :
+// aucune transaction ni verrou supplementaire, l'entree n'existe que si l'ecriture est validee.
+// Deux ecritures concurrentes peuvent valider leurs seq (IDENTITY) dans le desordre : la lecture
+// ne renvoie donc que les entrees plus anciennes que settle-delay.
+// HYPOTHESE : toute transaction valide moins de settle-delay apres l'insertion de son entree
+// (BEFORE_COMMIT : il ne reste que le flush et le commit). Sous cette hypothese, un client qui lit
+// "apres seq N" ne peut pas manquer une entree validee plus tard ; une transaction plus lente
+// (base saturee, pause GC) peut voir son entree sautee par un client deja passe au-dela de sa seq.
+// settle-delay doit donc rester nettement superieur a la duree d'un commit.
+// Le compactage ne garde que la derniere entree de chaque livre (instantane de l'etat) :
+// le delta reste exact quel que soit since, seul le detail des etats intermediaires disparait.
+// Les suppressions sont conservees tombstone-retention ; un client plus ancien recoit 410.
+@Component
+public class BookChangeLog {
+
+    private final BookChangeRepository bookChangeRepository;
+    private final BookRepository bookRepository;
+    private final Duration settleDelay;
+    private final Duration tombstoneRetention;
+
+    // since inferieur : des suppressions ont pu etre purgees, le delta serait incomplet
+    private volatile long horizon;
+
+    public BookChangeLog(BookChangeRepository bookChangeRepository,
+                         BookRepository bookRepository,
+                         @Value("${books.changes.settle-delay}") Duration settleDelay,
+                         @Value("${books.changes.tombstone-retention}") Duration tombstoneRetention) {
+        this.bookChangeRepository = bookChangeRepository;
+        this.bookRepository = bookRepository;
+        this.settleDelay = settleDelay;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHorizon() {
+        horizon = bookChangeRepository.findLastSeqBefore(BookChange.Kind.DELETE, Instant.now().minus(tombstoneRetention));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookChanged(BookChangedEvent event) {
+        bookChangeRepository.save(BookChange.builder()
+                .bookId(event.getBook().getId())
+                .kind(event.getType() == ChangeType.DELETED ? BookChange.Kind.DELETE : BookChange.Kind.UPSERT)
+                .changedAt(Instant.now())
+                .build());
+    }
+
+    // Lot importe : une seule insertion groupee dans la transaction du lot
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBooksImported(BooksImportedEvent event) {
+        Instant now = Instant.now();
+        bookChangeRepository.saveAll(event.getBooks().stream()
+                .map(book -> BookChange.builder()
+                        .bookId(book.getId())
+                        .kind(BookChange.Kind.UPSERT)
+                        .changedAt(now)
+                        .build())
+                .toList());
+    }
+
+    // Dernier seq : point de depart d'un client qui vient de charger tout le catalogue
+    public long lastSeq() {
+        return bookChangeRepository.findFirstByChangedAtLessThanEqualOrderBySeqDesc(settled())
+                .map(BookChange::getSeq)
+                .orElse(0L);
+    }
+
+    // Dernier seq enregistre, stabilise ou non (verification de l'index de recherche au demarrage)
+    public long headSeq() {
+        return bookChangeRepository.findLastSeq();
+    }
+
+    // Plus petit since encore servi (en dessous : 410, rechargement complet)
+    public long horizon() {
+        return horizon;
+    }
+
+    // Modifications apres since (au plus limit entrees du journal), regroupees par livre :
+    // un livre modifie plusieurs fois n'apparait qu'une fois, avec son etat courant
+    public BookChanges since(long since, int limit) {
+        List<BookChange> entries = bookChangeRepository.findBySeqGreaterThanAndChangedAtLessThanEqualOrderBySeq(
+                since, settled(), Limit.of(limit + 1));
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+        if (entries.isEmpty()) {
+            return new BookChanges(List.of(), List.of(), since, false);
+        }
+
+        // Derniere entree de chaque livre, dans l'ordre du journal
+        Map<Long, BookChange> latest = new LinkedHashMap<>();
+        for (BookChange entry : entries) {
+            latest.remove(entry.getBookId());
+            latest.put(entry.getBookId(), entry);
+        }
+
+        List<Long> upsertIds = latest.values().stream()
+                .filter(entry -> entry.getKind() == BookChange.Kind.UPSERT)
+                .map(BookChange::getBookId)
+                .toList();
+        Map<Long, Book> books = bookRepository.findAllById(upsertIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        List<Book> upserts = new ArrayList<>(books.size());
+        List<Long> deletions = new ArrayList<>();
+        for (BookChange entry : latest.values()) {
+            Book book = books.get(entry.getBookId());
+            if (book != null) {
+                upserts.add(book);
+            } else {
+                // Supprime depuis (la suppression arrive plus loin dans le journal)
+                deletions.add(entry.getBookId());
+            }
+        }
+        return new BookChanges(upserts, deletions, entries.get(entries.size() - 1).getSeq(), hasMore);
+    }
+
+    // Compactage + purge des suppressions expirees. La plus recente d'entre elles est gardee :
+    // son seq reste la borne du journal apres un redemarrage (loadHorizon).
+    @Scheduled(fixedDelayString = "${books.changes.compaction-interval:PT1H}")
+    @Transactional
+    public void compact() {
+        bookChangeRepository.deleteSuperseded();
+
+        Instant cutoff = Instant.now().minus(tombstoneRetention);
+        long expired = bookChangeRepository.findLastSeqBefore(BookChange.Kind.DELETE, cutoff);
+        if (expired > horizon) {
+            bookChangeRepository.deleteExpired(BookChange.Kind.DELETE, cutoff, expired);
+            horizon = expired;
+        }
+    }
+
+    private Instant settled() {
+        return Instant.now().minus(settleDelay);
+    }
+}
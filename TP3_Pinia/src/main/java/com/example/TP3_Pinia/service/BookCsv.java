@@ -0,0 +1,127 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Livres au format CSV (RFC 4180, separateur ",", une ligne par livre).
+// La premiere ligne donne le nom des colonnes ; les colonnes inconnues sont ignorees.
+// A la lecture, les retours a la ligne a l'interieur d'un champ ne sont pas supportes :
+// a l'ecriture, ils sont donc remplaces par des espaces.
+final class BookCsv {
+
+    static final List<String> COLUMNS = List.of(
+            "title", "author", "isbn", "price", "description",
+            "category", "publicationYear", "coverUrl");
+
+    private BookCsv() {
+    }
+
+    static String header() {
+        return String.join(",", COLUMNS);
+    }
+
+    // Meme ordre que COLUMNS
+    static String formatRow(Book book) {
+        return String.join(",",
+                escape(book.getTitle()),
+                escape(book.getAuthor()),
+                escape(book.getIsbn()),
+                String.valueOf(book.getPrice()),
+                escape(book.getDescription()),
+                book.getCategory() != null ? book.getCategory().name() : "",
+                book.getPublicationYear() != null ? book.getPublicationYear().toString() : "",
+                escape(book.getCoverUrl()));
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        String singleLine = value.replace('\r', ' ').replace('\n', ' ');
+        if (singleLine.indexOf(',') < 0 && singleLine.indexOf('"') < 0) {
+            return singleLine;
+        }
+        return '"' + singleLine.replace("\"", "\"\"") + '"';
+    }
+
+    // Nom de colonne -> position
+    static Map<String, Integer> parseHeader(String line) {
+        List<String> names = split(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            for (String column : COLUMNS) {
+                if (column.equalsIgnoreCase(name)) {
+                    columns.put(column, i);
+                }
+            }
+        }
+        return columns;
+    }
+
+    // IllegalArgumentException si une valeur numerique ou une categorie est invalide
+    static Book parseRow(String line, Map<String, Integer> columns) {
+        List<String> values = split(line);
+        String price = value(values, columns, "price");
+        String category = value(values, columns, "category");
+        String publicationYear = value(values, columns, "publicationYear");
+
+        return Book.builder()
+                .title(value(values, columns, "title"))
+                .author(value(values, columns, "author"))
+                .isbn(value(values, columns, "isbn"))
+                .price(price != null ? Double.parseDouble(price) : 0)
+                .description(value(values, columns, "description"))
+                .category(category != null ? BookCategory.valueOf(category.toUpperCase(Locale.ROOT)) : null)
+                .publicationYear(publicationYear != null ? Integer.valueOf(publicationYear) : null)
+                .coverUrl(value(values, columns, "coverUrl"))
+                .build();
+    }
+
+    private static String value(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Guillemet non ferme");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
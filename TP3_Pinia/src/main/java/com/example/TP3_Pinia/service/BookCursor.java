@@ -0,0 +1,66 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.model.Book;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Encode / decode le curseur opaque "after" de la pagination keyset.
+// Format (avant Base64) : champ|direction|id|valeur
+// Le curseur est lie au tri demande : on refuse un curseur emis pour un autre tri.
+final class BookCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private BookCursor() {
+    }
+
+    static String encode(BookSortField field, Sort.Direction direction, Book last) {
+        return encode(field, direction, last.getId(), field.extract(last));
+    }
+
+    static String encode(BookSortField field, Sort.Direction direction, BookSummary last) {
+        return encode(field, direction, last.getId(), field.extract(last));
+    }
+
+    private static String encode(BookSortField field, Sort.Direction direction, Long id, Object value) {
+        String raw = field.name() + "|" + direction.name() + "|" + id + "|" + value;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ScrollPosition decode(String token, BookSortField field, Sort.Direction direction) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        String[] parts;
+        try {
+            parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+
+        if (parts.length != 4
+                || !parts[0].equals(field.name())
+                || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Curseur invalide pour ce tri");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            if (field != BookSortField.ID) {
+                keys.put(field.getProperty(), field.parse(parts[3]));
+            }
+            keys.put("id", Long.valueOf(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+// Export du catalogue en flux : les livres sont lus un par un depuis un curseur JDBC
+// (fetch size 500), ecrits directement dans la reponse puis detaches du contexte
+// de persistance. La memoire utilisee ne depend pas de la taille de la table.
+@Service
+@RequiredArgsConstructor
+public class BookExportService {
+
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    public void export(OutputStream output, BookFileFormat format,
+                       BookCategory category, Integer fromYear, Integer toYear) throws IOException {
+        OutputStream out = new BufferedOutputStream(output, 64 * 1024);
+
+        if (format == BookFileFormat.CSV) {
+            writeLine(out, BookCsv.header().getBytes(StandardCharsets.UTF_8));
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<Book> books = bookRepository.streamForExport(category, fromYear, toYear)) {
+                    books.forEach(book -> {
+                        writeLine(out, format == BookFileFormat.CSV
+                                ? BookCsv.formatRow(book).getBytes(StandardCharsets.UTF_8)
+                                : objectMapper.writeValueAsBytes(book));
+                        entityManager.detach(book);
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private static void writeLine(OutputStream out, byte[] line) {
+        try {
+            out.write(line);
+            out.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Facettes du catalogue maintenues en memoire (comme CvReviewStatistics) :
+// - par categorie : un compteur atomique par constante (+ livres sans categorie)
+// - par tranche de prix : un compteur atomique par tranche fixe
+// - par decennie : compteurs atomiques tries par decennie (plage d'annees ouverte)
+// Chargees au demarrage par agregats SQL, puis ajustees a chaque BookChangedEvent :
+// lire les facettes ne touche jamais la base.
+// Rechargement (periodique ou a la demande) : nouveaux compteurs substitues d'un bloc.
+// Les ajustements sont alignes sur la validation des ecritures (ReloadLock) : une ecriture
+// deja vue par les requetes d'agregat n'est pas appliquee une seconde fois apres la substitution.
+@Component
+@RequiredArgsConstructor
+public class BookFacetCounts {
+
+    private static final BookCategory[] CATEGORIES = BookCategory.values();
+
+    // Bornes basses des tranches de prix : [0,10[ [10,20[ [20,30[ [30,50[ [50,+inf[
+    private static final double[] PRICE_BOUNDS = {0, 10, 20, 30, 50};
+
+    private final BookRepository bookRepository;
+
+    private final ReloadLock reloadLock = new ReloadLock();
+
+    private volatile Counters counters = new Counters();
+
+    private static final class Counters {
+        // Index CATEGORIES.length : livres sans categorie
+        private final AtomicLongArray categories = new AtomicLongArray(CATEGORIES.length + 1);
+        private final AtomicLongArray prices = new AtomicLongArray(PRICE_BOUNDS.length);
+        private final ConcurrentSkipListMap<Integer, AtomicLong> decades = new ConcurrentSkipListMap<>();
+
+        private void adjust(Book book, long delta) {
+            categories.addAndGet(categoryIndex(book.getCategory()), delta);
+            adjustDecade(book.getPublicationYear(), delta);
+            prices.addAndGet(priceIndex(book.getPrice()), delta);
+        }
+
+        private void adjustDecade(Integer year, long delta) {
+            if (year != null) {
+                decades.computeIfAbsent(Math.floorDiv(year, 10) * 10, d -> new AtomicLong())
+                        .addAndGet(delta);
+            }
+        }
+    }
+
+    // Demarrage, puis reconciliation periodique avec la base (derive eventuelle des compteurs)
+    // Connexion prise avant le verrou : les ecritures bloquees en attente tiennent les leurs
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${books.facets.reconcile-interval:PT1H}",
+            initialDelayString = "${books.facets.reconcile-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public void load() {
+        reloadLock.reload(() -> {
+            Counters fresh = new Counters();
+            for (Object[] row : bookRepository.countByCategory()) {
+                fresh.categories.addAndGet(categoryIndex((BookCategory) row[0]), (Long) row[1]);
+            }
+            for (Object[] row : bookRepository.countByPublicationYear()) {
+                fresh.adjustDecade((Integer) row[0], (Long) row[1]);
+            }
+            for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+                fresh.prices.set(i, i + 1 < PRICE_BOUNDS.length
+                        ? bookRepository.countByPriceGreaterThanEqualAndPriceLessThan(PRICE_BOUNDS[i], PRICE_BOUNDS[i + 1])
+                        : bookRepository.countByPriceGreaterThanEqual(PRICE_BOUNDS[i]));
+            }
+            counters = fresh;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        reloadLock.applyAtCommit(() -> {
+            Counters current = counters;
+            if (event.getType() == ChangeType.DELETED) {
+                current.adjust(event.getBook(), -1);
+                return;
+            }
+            if (event.getPrevious() != null) {
+                current.adjust(event.getPrevious(), -1);
+            }
+            current.adjust(event.getBook(), 1);
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        reloadLock.applyAtCommit(() -> {
+            Counters current = counters;
+            event.getBooks().forEach(book -> current.adjust(book, 1));
+        });
+    }
+
+    public Snapshot snapshot() {
+        Counters current = counters;
+        AtomicLongArray categories = current.categories;
+        AtomicLongArray prices = current.prices;
+
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        for (BookCategory category : CATEGORIES) {
+            byCategory.put(category.name(), categories.get(category.ordinal()));
+        }
+        long uncategorized = categories.get(CATEGORIES.length);
+        if (uncategorized > 0) {
+            byCategory.put("NONE", uncategorized);
+        }
+
+        Map<String, Long> byDecade = new LinkedHashMap<>();
+        current.decades.forEach((decade, count) -> {
+            long value = count.get();
+            if (value > 0) {
+                byDecade.put(String.valueOf(decade), value);
+            }
+        });
+
+        Map<String, Long> byPrice = new LinkedHashMap<>();
+        for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+            byPrice.put(priceLabel(i), prices.get(i));
+        }
+
+        long total = 0;
+        for (int i = 0; i < categories.length(); i++) {
+            total += categories.get(i);
+        }
+        return new Snapshot(total, byCategory, byDecade, byPrice);
+    }
+
+    private static int categoryIndex(BookCategory category) {
+        return category != null ? category.ordinal() : CATEGORIES.length;
+    }
+
+    private static int priceIndex(double price) {
+        for (int i = PRICE_BOUNDS.length - 1; i > 0; i--) {
+            if (price >= PRICE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static String priceLabel(int index) {
+        String low = String.valueOf((int) PRICE_BOUNDS[index]);
+        return index + 1 < PRICE_BOUNDS.length
+                ? low + "-" + (int) PRICE_BOUNDS[index + 1]
+                : low + "+";
+    }
+
+    // Vue figee des compteurs
+    public static final class Snapshot {
+
+        private final long total;
+        private final Map<String, Long> categories;
+        private final Map<String, Long> decades;
+        private final Map<String, Long> prices;
+
+        private Snapshot(long total, Map<String, Long> categories,
+                         Map<String, Long> decades, Map<String, Long> prices) {
+            this.total = total;
+            this.categories = categories;
+            this.decades = decades;
+            this.prices = prices;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        // "ROMAN" -> n, ... (toutes les categories, "NONE" pour les livres sans categorie)
+        public Map<String, Long> getCategories() {
+            return categories;
+        }
+
+        // "1850" -> n, ... (decennies non vides, dans l'ordre)
+        public Map<String, Long> getDecades() {
+            return decades;
+        }
+
+        // "0-10" -> n, ..., "50+" -> n
+        public Map<String, Long> getPrices() {
+            return prices;
+        }
+    }
+}
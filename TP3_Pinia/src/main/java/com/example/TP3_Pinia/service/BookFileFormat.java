@@ -0,0 +1,39 @@
+package com.example.TP3_Pinia.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+// Formats de fichier pour l'import / export du catalogue
+public enum BookFileFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    BookFileFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static BookFileFormat from(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Format non supporte : " + value);
+        }
+    }
+
+    public static BookFileFormat from(MediaType contentType) {
+        return contentType.isCompatibleWith(CSV.mediaType) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookImportReport;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.repository.BookRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Import en masse de livres depuis un flux NDJSON ou CSV.
+// Le flux est lu ligne par ligne et traite par lots de CHUNK_SIZE :
+// une requete pour les ISBN deja en base, puis une transaction par lot
+// (INSERT regroupes en lots JDBC grace a la sequence books_seq) et un BooksImportedEvent par lot.
+// La memoire utilisee ne depend pas de la taille du fichier.
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookImportReport importBooks(InputStream input, BookFileFormat format) throws IOException {
+        BookImportReport report = new BookImportReport();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8))) {
+
+            long lineNumber = 0;
+            Map<String, Integer> columns = null;
+            if (format == BookFileFormat.CSV) {
+                String header = reader.readLine();
+                if (header == null) {
+                    return report;
+                }
+                lineNumber++;
+                columns = BookCsv.parseHeader(header);
+            }
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                Book book;
+                try {
+                    book = format == BookFileFormat.CSV
+                            ? BookCsv.parseRow(line, columns)
+                            : objectMapper.readValue(line, Book.class);
+                } catch (IllegalArgumentException | JacksonException e) {
+                    report.reject(lineNumber, null, "Ligne illisible : " + e.getMessage());
+                    continue;
+                }
+
+                // L'id est toujours attribue par la base
+                book.setId(null);
+
+                Set<ConstraintViolation<Book>> violations = validator.validate(book);
+                if (!violations.isEmpty()) {
+                    report.reject(lineNumber, book.getIsbn(), violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+
+                chunk.add(new Row(lineNumber, book));
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(chunk, report);
+                    chunk.clear();
+                }
+            }
+            flush(chunk, report);
+        }
+        return report;
+    }
+
+    private void flush(List<Row> chunk, BookImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Doublons d'ISBN : en base (une requete par lot) ou dans le fichier
+        Set<String> existing = bookRepository.findExistingIsbns(
+                chunk.stream().map(row -> row.book().getIsbn()).toList());
+        Set<String> seen = new HashSet<>();
+        List<Row> rows = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String isbn = row.book().getIsbn();
+            if (existing.contains(isbn) || !seen.add(isbn)) {
+                report.reject(row.line(), isbn, "ISBN déjà existant");
+            } else {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<Book> books = rows.stream().map(Row::book).toList();
+        try {
+            // Un seul evenement pour le lot, publie dans sa transaction (journal des modifications)
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.saveAll(books);
+                eventPublisher.publishEvent(new BooksImportedEvent(books));
+            });
+            report.addImported(books.size());
+        } catch (DataIntegrityViolationException e) {
+            // Conflit avec une ecriture concurrente : on rejoue le lot ligne par ligne
+            for (Row row : rows) {
+                row.book().setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            publishCreated(bookRepository.save(row.book())));
+                    report.addImported(1);
+                } catch (DataIntegrityViolationException ex) {
+                    report.reject(row.line(), row.book().getIsbn(), "ISBN déjà existant");
+                }
+            }
+        }
+    }
+
+    private void publishCreated(Book book) {
+        eventPublisher.publishEvent(new BookChangedEvent(ChangeType.CREATED, book, null));
+    }
+
+    private record Row(long line, Book book) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookQuery;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+import com.example.TP3_Pinia.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Index en memoire des plages de prix et d'annee (comme BookFacetCounts) :
+// - deux ensembles tries de cles primitives (prix en centimes | annee, id)
+// - une ligne (prix, annee, categorie) par livre pour verifier les autres filtres
+// Une plage se lit en O(log n + k) : si elle est selective, la requete SQL est restreinte
+// a ces identifiants (cle primaire) ; sinon la base utilise ses index composites.
+// Charge au demarrage par une projection, puis ajuste a chaque BookChangedEvent.
+// Lectures et ecritures sous le meme moniteur : un livre deplace (retire puis remis) n'est
+// jamais absent d'une lecture. Les ajustements passent avant ResourceVersions (@Order) :
+// une requete qui voit la nouvelle version des livres voit aussi l'index a jour.
+@Component
+public class BookRangeIndex {
+
+    // Au-dela, on laisse la base filtrer (liste IN trop longue)
+    private final int maxIds;
+
+    private final BookRepository bookRepository;
+
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final NavigableSet<Key> byPrice = new TreeSet<>();
+    private final NavigableSet<Key> byYear = new TreeSet<>();
+
+    // Faux tant que le chargement initial n'a pas eu lieu : index vide, la base filtre seule
+    private boolean loaded;
+
+    public BookRangeIndex(BookRepository bookRepository,
+                          @Value("${books.range-index.max-ids}") int maxIds) {
+        this.bookRepository = bookRepository;
+        this.maxIds = maxIds;
+    }
+
+    // Cle triee par valeur puis par id (plusieurs livres au meme prix / a la meme annee)
+    private record Key(long value, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+
+    private record Row(long priceCents, Integer year, BookCategory category) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        rows.clear();
+        byPrice.clear();
+        byYear.clear();
+        for (Object[] row : bookRepository.findRangeKeys()) {
+            add((Long) row[0], new Row(cents((Double) row[1]), (Integer) row[2], (BookCategory) row[3]));
+        }
+        loaded = true;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        remove(book.getId());
+        if (event.getType() != ChangeType.DELETED) {
+            add(book.getId(), new Row(cents(book.getPrice()), book.getPublicationYear(), book.getCategory()));
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBooksImported(BooksImportedEvent event) {
+        for (Book book : event.getBooks()) {
+            add(book.getId(), new Row(cents(book.getPrice()), book.getPublicationYear(), book.getCategory()));
+        }
+    }
+
+    // Identifiants des livres dans les plages (et la categorie) demandees :
+    // - liste vide : aucun livre ne correspond, inutile d'interroger la base
+    // - null : pas de plage, plage trop large (plus de maxIds livres a parcourir) ou index pas encore charge
+    // Sur-ensemble du resultat : auteur / titre et bornes exactes restent verifies en SQL.
+    public synchronized List<Long> candidates(BookQuery query) {
+        if (!loaded || !query.hasRange()) {
+            return null;
+        }
+
+        List<Long> ids = null;
+        if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+            long from = query.getMinPrice() != null ? (long) Math.floor(query.getMinPrice() * 100) : Long.MIN_VALUE;
+            long to = query.getMaxPrice() != null ? (long) Math.ceil(query.getMaxPrice() * 100) : Long.MAX_VALUE;
+            ids = scan(byPrice, from, to, query);
+        }
+        if (ids == null && (query.getFromYear() != null || query.getToYear() != null)) {
+            long from = query.getFromYear() != null ? query.getFromYear() : Long.MIN_VALUE;
+            long to = query.getToYear() != null ? query.getToYear() : Long.MAX_VALUE;
+            ids = scan(byYear, from, to, query);
+        }
+        return ids;
+    }
+
+    private List<Long> scan(NavigableSet<Key> index, long from, long to, BookQuery query) {
+        if (from > to) {
+            return List.of();
+        }
+        NavigableSet<Key> range = index.subSet(new Key(from, Long.MIN_VALUE), true, new Key(to, Long.MAX_VALUE), true);
+        List<Long> ids = new ArrayList<>();
+        int scanned = 0;
+        for (Key key : range) {
+            if (++scanned > maxIds) {
+                return null;
+            }
+            Row row = rows.get(key.id());
+            if (row != null && matches(row, query)) {
+                ids.add(key.id());
+            }
+        }
+        return ids;
+    }
+
+    private static boolean matches(Row row, BookQuery query) {
+        if (query.getCategory() != null && query.getCategory() != row.category()) {
+            return false;
+        }
+        if (query.getFromYear() != null || query.getToYear() != null) {
+            if (row.year() == null
+                    || (query.getFromYear() != null && row.year() < query.getFromYear())
+                    || (query.getToYear() != null && row.year() > query.getToYear())) {
+                return false;
+            }
+        }
+        // Prix compare au centime pres (arrondi) : la borne exacte est verifiee en SQL
+        return (query.getMinPrice() == null || row.priceCents() >= Math.floor(query.getMinPrice() * 100))
+                && (query.getMaxPrice() == null || row.priceCents() <= Math.ceil(query.getMaxPrice() * 100));
+    }
+
+    private void add(long id, Row row) {
+        rows.put(id, row);
+        byPrice.add(new Key(row.priceCents(), id));
+        if (row.year() != null) {
+            byYear.add(new Key(row.year(), id));
+        }
+    }
+
+    private void remove(long id) {
+        Row row = rows.remove(id);
+        if (row != null) {
+            byPrice.remove(new Key(row.priceCents(), id));
+            if (row.year() != null) {
+                byYear.remove(new Key(row.year(), id));
+            }
+        }
+    }
+
+    private static long cents(double price) {
+        return Math.round(price * 100);
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.fr.FrenchLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.ElisionFilter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Index plein texte Lucene embarque (stocke sur disque) sur titre, auteur et description.
+// - analyse francaise : elisions (l', d'...), mots vides, accents, racinisation legere
+// - classement BM25 (similarite par defaut de Lucene)
+// - tolerance aux fautes de frappe via FuzzyQuery
+// L'index est mis a jour apres chaque ecriture validee ; les modifications sont visibles
+// des la recherche suivante (near-real-time) et validees sur disque periodiquement, avec
+// le dernier seq du journal des modifications deja indexe (donnees de la validation).
+// Au demarrage, l'index n'est reutilise que si la base est persistante et que ce seq
+// correspond encore au journal ; sinon il est reconstruit.
+// Une mise a jour en echec n'est jamais remontee au client (l'ecriture est deja validee) :
+// l'index est marque a reconstruire au prochain passage de maintain().
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    private static final String DESCRIPTION = "description";
+
+    // Cle des donnees de validation Lucene : dernier seq du journal deja indexe
+    private static final String CHANGE_SEQ = "changeSeq";
+
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            TITLE, 3f,
+            AUTHOR, 2f,
+            DESCRIPTION, 1f);
+
+    // Poids d'une correspondance approchee par rapport a une correspondance exacte
+    private static final float FUZZY_BOOST = 0.5f;
+
+    private static final int REINDEX_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookChangeLog bookChangeLog;
+    private final Path indexDir;
+    private final boolean persistentDatabase;
+    private final Analyzer analyzer = new FrenchBookAnalyzer();
+
+    // Ecriture : reconstruction complete ; lecture : mises a jour incrementales et validations
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    // Une mise a jour incrementale a echoue : reconstruction complete a prevoir
+    private volatile boolean dirty;
+
+    // Verification de demarrage terminee : avant, aucune validation (le seq serait faux)
+    private volatile boolean checked;
+
+    public BookSearchIndex(BookRepository bookRepository,
+                           BookChangeLog bookChangeLog,
+                           @Value("${search.index-dir}") String indexDir,
+                           @Value("${spring.datasource.url}") String datasourceUrl) {
+        this.bookRepository = bookRepository;
+        this.bookChangeLog = bookChangeLog;
+        this.indexDir = Path.of(indexDir);
+        this.persistentDatabase = !datasourceUrl.startsWith("jdbc:h2:mem:");
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(FSDirectory.open(indexDir), config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        try {
+            if (checked && !dirty) {
+                commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Base deja fermee : l'index sera verifie (et reconstruit si besoin) au demarrage
+            log.warn("Validation finale de l'index de recherche impossible : {}", e.getMessage());
+        }
+        searcherManager.close();
+        writer.close();
+    }
+
+    // Au demarrage, l'index sur disque peut etre desynchronise de la base
+    // (base en memoire recreee, arret brutal, sauvegarde restauree...) : on reindexe si besoin
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkConsistency() {
+        String indexedSeq = null;
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            if (CHANGE_SEQ.equals(entry.getKey())) {
+                indexedSeq = entry.getValue();
+            }
+        }
+        if (!persistentDatabase
+                || !String.valueOf(bookChangeLog.headSeq()).equals(indexedSeq)
+                || writer.getDocStats().numDocs != bookRepository.count()) {
+            reindex();
+        }
+        checked = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Term id = new Term(ID, String.valueOf(event.getBook().getId()));
+        update(() -> {
+            if (event.getType() == ChangeType.DELETED) {
+                writer.deleteDocuments(id);
+            } else {
+                writer.updateDocument(id, toDocument(event.getBook()));
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        update(() -> {
+            for (Book book : event.getBooks()) {
+                writer.updateDocument(new Term(ID, String.valueOf(book.getId())), toDocument(book));
+            }
+        });
+    }
+
+    // Validation periodique des mises a jour incrementales (ou reconstruction apres un echec)
+    @Scheduled(fixedDelayString = "${search.commit-interval:PT30S}")
+    public void maintain() {
+        if (!checked) {
+            return;
+        }
+        if (dirty) {
+            reindex();
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            commit();
+        } catch (IOException | RuntimeException e) {
+            log.error("Validation de l'index de recherche impossible", e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Reconstruction complete de l'index depuis la base, renvoie le nombre de livres indexes
+    public long reindex() {
+        rebuildLock.writeLock().lock();
+        try {
+            dirty = false;
+            // Lu avant le parcours : toutes ces modifications sont visibles dans la base
+            long changeSeq = bookChangeLog.lastSeq();
+            writer.deleteAll();
+            long count = 0;
+            ScrollPosition position = ScrollPosition.keyset();
+            Window<Book> window;
+            do {
+                window = bookRepository.findAllBy(position, Limit.of(REINDEX_BATCH_SIZE), Sort.by(ID));
+                for (Book book : window) {
+                    writer.addDocument(toDocument(book));
+                    count++;
+                }
+                if (!window.isEmpty()) {
+                    position = window.positionAt(window.size() - 1);
+                }
+            } while (window.hasNext());
+
+            writer.setLiveCommitData(Map.of(CHANGE_SEQ, String.valueOf(changeSeq)).entrySet());
+            writer.commit();
+            searcherManager.maybeRefresh();
+            return count;
+        } catch (IOException e) {
+            dirty = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private interface IndexUpdate {
+        void apply() throws IOException;
+    }
+
+    // Mise a jour incrementale ; en cas d'echec, journalisee et rattrapee par maintain()
+    private void update(IndexUpdate update) {
+        rebuildLock.readLock().lock();
+        try {
+            update.apply();
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            log.error("Mise a jour de l'index de recherche impossible, reconstruction planifiee", e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Les modifications au plus anciennes que le delai de stabilisation du journal sont
+    // deja appliquees : leur seq peut etre enregistre avec la validation
+    private void commit() throws IOException {
+        String changeSeq = String.valueOf(bookChangeLog.lastSeq());
+        boolean seqChanged = true;
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            if (CHANGE_SEQ.equals(entry.getKey())) {
+                seqChanged = !changeSeq.equals(entry.getValue());
+            }
+        }
+        if (writer.hasUncommittedChanges() || seqChanged) {
+            writer.setLiveCommitData(Map.of(CHANGE_SEQ, changeSeq).entrySet());
+            writer.commit();
+        }
+    }
+
+    // Identifiants des livres les plus pertinents avec leur score, du meilleur au moins bon
+    public Map<Long, Float> search(String text, int limit) {
+        Query query = buildQuery(text);
+        Map<Long, Float> hits = new LinkedHashMap<>();
+        if (query == null) {
+            return hits;
+        }
+
+        try {
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, limit);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    String id = searcher.storedFields().document(scoreDoc.doc).get(ID);
+                    hits.put(Long.valueOf(id), scoreDoc.score);
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hits;
+    }
+
+    // Chaque terme doit apparaitre (exact ou approche) dans au moins un champ
+    private Query buildQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            int maxEdits = term.length() >= 6 ? 2 : term.length() >= 3 ? 1 : 0;
+            FIELD_BOOSTS.forEach((field, boost) -> {
+                Term fieldTerm = new Term(field, term);
+                anyField.add(new BoostQuery(new TermQuery(fieldTerm), boost), BooleanClause.Occur.SHOULD);
+                if (maxEdits > 0) {
+                    anyField.add(new BoostQuery(new FuzzyQuery(fieldTerm, maxEdits), boost * FUZZY_BOOST),
+                            BooleanClause.Occur.SHOULD);
+                }
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Document toDocument(Book book) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+        document.add(new TextField(TITLE, book.getTitle(), Field.Store.NO));
+        document.add(new TextField(AUTHOR, book.getAuthor(), Field.Store.NO));
+        if (book.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, book.getDescription(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    // Analyse francaise : elisions, minuscules, mots vides, accents, racinisation legere
+    private static final class FrenchBookAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer source = new StandardTokenizer();
+            TokenStream result = new ElisionFilter(source, FrenchAnalyzer.DEFAULT_ARTICLES);
+            result = new LowerCaseFilter(result);
+            result = new StopFilter(result, FrenchAnalyzer.getDefaultStopSet());
+            result = new ASCIIFoldingFilter(result);
+            result = new FrenchLightStemFilter(result);
+            return new TokenStreamComponents(source, result);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(new ElisionFilter(in, FrenchAnalyzer.DEFAULT_ARTICLES)));
+        }
+    }
+}
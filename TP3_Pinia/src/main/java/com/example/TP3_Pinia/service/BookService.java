@@ -1,28 +1,86 @@
 package com.example.TP3_Pinia.service;
 
+import com.example.TP3_Pinia.config.CacheConfig;
+import com.example.TP3_Pinia.dto.BookBatch;
+import com.example.TP3_Pinia.dto.BookChanges;
+import com.example.TP3_Pinia.dto.BookQuery;
+import com.example.TP3_Pinia.dto.BookSearchHit;
+import com.example.TP3_Pinia.dto.BookSuggestion;
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.dto.CursorPage;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
 import com.example.TP3_Pinia.model.Book;
 import com.example.TP3_Pinia.model.BookCategory;
 import com.example.TP3_Pinia.repository.BookRepository;
+import com.example.TP3_Pinia.repository.BookSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookFacetCounts bookFacetCounts;
+    private final BookRangeIndex bookRangeIndex;
+    private final BookChangeLog bookChangeLog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ResourceVersions resourceVersions;
+
+    // Cle des pages en cache : la version des livres fait partie de la cle. Une page calculee
+    // avant une ecriture reste rangee sous l'ancienne version, qu'aucune lecture ne demande plus
+    // apres la montee de version (meme si elle est deposee apres l'invalidation).
+    record PageKey(String version, BookQuery query) {
+    }
 
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id")
     public Optional<Book> findById(Long id) {
         return bookRepository.findById(id);
     }
 
+    // Lecture groupee : une seule requete IN, ordre de la demande conserve
+    public BookBatch findAllByIds(Collection<Long> ids) {
+        Map<Long, Book> found = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        List<Book> books = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Book book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BookBatch(books, missing);
+    }
+
     public List<Book> findByCategory(BookCategory category) {
         return bookRepository.findByCategory(category);
     }
@@ -35,13 +93,130 @@ public class BookService {
         return bookRepository.findByTitleContainingIgnoreCase(title);
     }
 
+    // Page du catalogue : tous les filtres renseignes sont combines
+    // Mise en cache par requete et version des livres (PageKey)
+    public CursorPage<Book> scroll(BookQuery query) {
+        return page(CacheConfig.BOOK_PAGES, query, Book.class,
+                last -> BookCursor.encode(query.getSort(), query.getDirection(), last));
+    }
+
+    // Meme page sans la colonne description (listes)
+    public CursorPage<BookSummary> scrollSummaries(BookQuery query) {
+        return page(CacheConfig.BOOK_SUMMARY_PAGES, query, BookSummary.class,
+                last -> BookCursor.encode(query.getSort(), query.getDirection(), last));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CursorPage<T> page(String cacheName, BookQuery query, Class<T> type, Function<T, String> cursor) {
+        // Version lue avant la requete : les donnees lues sont au moins aussi recentes qu'elle
+        PageKey key = new PageKey(resourceVersions.books().getEtag(), query);
+        Cache cache = cacheManager.getCache(cacheName);
+        CursorPage<T> cached = cache.get(key, CursorPage.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Plage selective : identifiants lus dans l'index en memoire
+        List<Long> ids = query.hasFilter() ? bookRangeIndex.candidates(query) : null;
+        Window<T> window = window(query, ids, type);
+        List<T> items = window.getContent();
+        String nextCursor = window.hasNext() && !items.isEmpty() ? cursor.apply(items.get(items.size() - 1)) : null;
+        CursorPage<T> page = new CursorPage<>(items, nextCursor);
+
+        // L'index est ajuste apres la validation et peut retarder sur la base : une page
+        // restreinte a ses identifiants n'est pas gardee (la requete par cle primaire est peu couteuse)
+        if (ids == null) {
+            cache.put(key, page);
+        }
+        return page;
+    }
+
+    private <T> Window<T> window(BookQuery query, List<Long> ids, Class<T> type) {
+        BookSortField field = query.getSort();
+        Sort.Direction direction = query.getDirection();
+        Sort sort = field.toSort(direction);
+        ScrollPosition position = BookCursor.decode(query.getAfter(), field, direction);
+        Limit limit = Limit.of(query.getLimit());
+
+        if (!query.hasFilter()) {
+            return bookRepository.findAllBy(position, limit, sort, type);
+        }
+        if (ids != null && ids.isEmpty()) {
+            return Window.from(List.of(), index -> position);
+        }
+        return bookRepository.findBy(BookSpecifications.matching(query, ids), fluent -> fluent
+                .as(type)
+                .sortBy(sort)
+                .limit(limit.max())
+                .scroll(position));
+    }
+
+    // Autocompletion sur les titres et auteurs (index en memoire)
+    public List<BookSuggestion> suggest(String query, int limit) {
+        return bookSuggestIndex.suggest(query, limit);
+    }
+
+    // Recherche plein texte classee par pertinence
+    public List<BookSearchHit> search(String query, int limit) {
+        Map<Long, Float> hits = bookSearchIndex.search(query, limit);
+        Map<Long, Book> books = bookRepository.findAllById(hits.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        // On conserve l'ordre de pertinence de l'index
+        return hits.entrySet().stream()
+                .filter(hit -> books.containsKey(hit.getKey()))
+                .map(hit -> new BookSearchHit(books.get(hit.getKey()), hit.getValue()))
+                .toList();
+    }
+
+    // Facettes du catalogue (compteurs en memoire, aucune requete)
+    public BookFacetCounts.Snapshot facets() {
+        return bookFacetCounts.snapshot();
+    }
+
+    // Recalcul des facettes depuis la base (agregats SQL)
+    public BookFacetCounts.Snapshot reconcileFacets() {
+        bookFacetCounts.load();
+        return bookFacetCounts.snapshot();
+    }
+
+    // Journal des modifications : delta depuis since / dernier seq
+    public BookChanges changesSince(long since, int limit) {
+        return bookChangeLog.since(since, limit);
+    }
+
+    public long lastChangeSeq() {
+        return bookChangeLog.lastSeq();
+    }
+
+    public long changesHorizon() {
+        return bookChangeLog.horizon();
+    }
+
+    public long reindex() {
+        return bookSearchIndex.reindex();
+    }
+
+    @Transactional
     public Book save(Book book) {
-        return bookRepository.save(book);
+        // Copie : save() fusionne le nouvel etat dans l'instance geree renvoyee par findById
+        Book previous = book.getId() != null
+                ? bookRepository.findById(book.getId()).map(existing -> existing.toBuilder().build()).orElse(null)
+                : null;
+
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookChangedEvent(
+                previous != null ? ChangeType.UPDATED : ChangeType.CREATED,
+                saved,
+                previous));
+        return saved;
     }
 
+    @Transactional
     public Optional<Book> update(Long id, Book bookDetails) {
         return bookRepository.findById(id)
                 .map(existingBook -> {
+                    Book previous = existingBook.toBuilder().build();
                     existingBook.setTitle(bookDetails.getTitle());
                     existingBook.setAuthor(bookDetails.getAuthor());
                     existingBook.setIsbn(bookDetails.getIsbn());
@@ -50,16 +225,37 @@ public class BookService {
                     existingBook.setCoverUrl(bookDetails.getCoverUrl());
                     existingBook.setPublicationYear(bookDetails.getPublicationYear());
                     existingBook.setCategory(bookDetails.getCategory());
-                    return bookRepository.save(existingBook);
+                    Book saved = bookRepository.save(existingBook);
+                    eventPublisher.publishEvent(new BookChangedEvent(
+                            ChangeType.UPDATED, saved, previous));
+                    return saved;
                 });
     }
 
+    // Remplace la couverture (fichier deja stocke) ; memes evenements qu'une mise a jour
+    @Transactional
+    public Optional<Book> updateCover(Long id, String coverUrl) {
+        return bookRepository.findById(id)
+                .map(existingBook -> {
+                    Book previous = existingBook.toBuilder().build();
+                    existingBook.setCoverUrl(coverUrl);
+                    Book saved = bookRepository.save(existingBook);
+                    eventPublisher.publishEvent(new BookChangedEvent(
+                            ChangeType.UPDATED, saved, previous));
+                    return saved;
+                });
+    }
+
+    @Transactional
     public boolean delete(Long id) {
-        if (bookRepository.existsById(id)) {
-            bookRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return bookRepository.findById(id)
+                .map(book -> {
+                    bookRepository.delete(book);
+                    eventPublisher.publishEvent(new BookChangedEvent(
+                            ChangeType.DELETED, book, null));
+                    return true;
+                })
+                .orElse(false);
     }
 
     public boolean existsByIsbn(String isbn) {
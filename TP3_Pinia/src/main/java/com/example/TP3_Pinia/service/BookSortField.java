@@ -0,0 +1,64 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.model.Book;
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+
+// Cles de tri stables autorisees pour la pagination par curseur.
+// L'id est toujours ajoute en second critere pour departager les egalites.
+public enum BookSortField {
+    TITLE("title", Book::getTitle, BookSummary::getTitle, value -> value),
+    PRICE("price", Book::getPrice, BookSummary::getPrice, Double::valueOf),
+    PUBLICATION_YEAR("publicationYear", Book::getPublicationYear, BookSummary::getPublicationYear, Integer::valueOf),
+    ID("id", Book::getId, BookSummary::getId, Long::valueOf);
+
+    private final String property;
+    private final Function<Book, Object> extractor;
+    private final Function<BookSummary, Object> summaryExtractor;
+    private final Function<String, Object> parser;
+
+    BookSortField(String property,
+                  Function<Book, Object> extractor,
+                  Function<BookSummary, Object> summaryExtractor,
+                  Function<String, Object> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.summaryExtractor = summaryExtractor;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort toSort(Sort.Direction direction) {
+        if (this == ID) {
+            return Sort.by(direction, property);
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    Object extract(Book book) {
+        return extractor.apply(book);
+    }
+
+    Object extract(BookSummary book) {
+        return summaryExtractor.apply(book);
+    }
+
+    Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    // Accepte le nom de la propriete ("publicationYear") ou de la constante
+    public static BookSortField from(String value) {
+        for (BookSortField field : values()) {
+            if (field.property.equalsIgnoreCase(value) || field.name().equalsIgnoreCase(value)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Tri non supporte : " + value);
+    }
+}
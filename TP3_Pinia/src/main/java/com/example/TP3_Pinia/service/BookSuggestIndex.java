@@ -0,0 +1,148 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookSuggestion;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Index de prefixes en memoire pour l'autocompletion (titres et auteurs).
+// Chaque titre / auteur est indexe a partir de chacun de ses mots, apres
+// normalisation (minuscules, sans accents) : "Les Misérables" est trouve
+// par "les mis" comme par "mise". La recherche est un parcours de sous-map
+// triee (O(log n) + N resultats), sans acces a la base.
+// Reconstruction et mises a jour sous le meme moniteur (comme BookRangeIndex) : un evenement
+// ne se mele pas a un rebuild en cours et ne laisse pas de cles orphelines. La lecture reste
+// sans verrou : un livre modifie recoit ses nouvelles cles avant le retrait des anciennes.
+@Component
+@RequiredArgsConstructor
+public class BookSuggestIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    // Separe le texte indexe de l'identifiant dans les cles
+    private static final char SEPARATOR = '\u0000';
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    // "texte normalise\0T\0id" -> suggestion
+    private final ConcurrentSkipListMap<String, BookSuggestion> entries = new ConcurrentSkipListMap<>();
+
+    // id du livre -> cles indexees (pour la mise a jour / suppression)
+    private final Map<Long, List<String>> keysByBook = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        entries.clear();
+        keysByBook.clear();
+
+        // Parcours par lots pour ne pas charger tout le catalogue d'un coup
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Book> window;
+        do {
+            window = bookRepository.findAllBy(position, Limit.of(REBUILD_BATCH_SIZE), Sort.by("id"));
+            window.forEach(this::index);
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        Long id = event.getBook().getId();
+        List<String> previous = keysByBook.remove(id);
+        List<String> current = event.getType() != ChangeType.DELETED ? index(event.getBook()) : List.of();
+        if (previous != null) {
+            previous.stream().filter(key -> !current.contains(key)).forEach(entries::remove);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBooksImported(BooksImportedEvent event) {
+        event.getBooks().forEach(this::index);
+    }
+
+    // Au plus "limit" suggestions distinctes dont un mot commence par "query"
+    public List<BookSuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        List<BookSuggestion> result = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            return result;
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (BookSuggestion suggestion : entries
+                .subMap(prefix, true, prefix + Character.MAX_VALUE, true)
+                .values()) {
+            if (seen.add(suggestion.getType() + suggestion.getText())) {
+                result.add(suggestion);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<String> index(Book book) {
+        List<String> keys = new ArrayList<>();
+        add(keys, book.getId(), book.getTitle(),
+                new BookSuggestion(book.getTitle(), BookSuggestion.Type.TITLE, book.getId()));
+        add(keys, book.getId(), book.getAuthor(),
+                new BookSuggestion(book.getAuthor(), BookSuggestion.Type.AUTHOR, null));
+        keysByBook.put(book.getId(), keys);
+        return keys;
+    }
+
+    private void add(List<String> keys, Long id, String text, BookSuggestion suggestion) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        char type = suggestion.getType() == BookSuggestion.Type.TITLE ? 'T' : 'A';
+        String suffix = "" + SEPARATOR + type + SEPARATOR + id;
+
+        // Une entree par debut de mot
+        int start = 0;
+        while (start >= 0) {
+            String key = normalized.substring(start) + suffix;
+            entries.put(key, suggestion);
+            keys.add(key);
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+}
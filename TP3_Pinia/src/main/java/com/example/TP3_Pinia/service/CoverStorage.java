@@ -0,0 +1,176 @@
+package com.example.TP3_Pinia.service;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Stockage des couvertures sur disque local, nommees par leur empreinte SHA-256 :
+// - un meme fichier n'est stocke qu'une fois (deduplication)
+// - le contenu d'un nom ne change jamais : cache navigateur "immutable" possible
+// Le fichier est ecrit en flux (empreinte calculee a la volee) puis renomme atomiquement.
+@Component
+public class CoverStorage {
+
+    // <sha256>.<extension> : valide aussi les noms recus dans l'URL (pas de "../")
+    private static final Pattern COVER_NAME = Pattern.compile("^([0-9a-f]{64})\\.(jpg|png|gif)$");
+
+    private final Path coverDir;
+    private final long maxSize;
+    private final CoverThumbnailer thumbnailer;
+
+    public CoverStorage(@Value("${covers.dir}") String coverDir,
+                        @Value("${covers.max-size}") DataSize maxSize,
+                        CoverThumbnailer thumbnailer) throws IOException {
+        this.coverDir = Files.createDirectories(Path.of(coverDir));
+        this.maxSize = maxSize.toBytes();
+        this.thumbnailer = thumbnailer;
+    }
+
+    // Enregistre une image (JPEG, PNG ou GIF) et renvoie son nom de fichier
+    // IllegalArgumentException si le contenu est vide, trop gros ou n'est pas une image reconnue
+    public String store(InputStream content) throws IOException {
+        Path upload = Files.createTempFile(coverDir, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(upload)) {
+                size = copy(in, out);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Image vide");
+            }
+
+            ImageFormat format = ImageFormat.detect(upload)
+                    .orElseThrow(() -> new IllegalArgumentException("Format d'image non supporte (JPEG, PNG ou GIF)"));
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + format.getExtension();
+
+            try {
+                Files.move(upload, coverDir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Meme contenu deja stocke
+                Files.deleteIfExists(upload);
+            }
+            thumbnailer.schedule(coverDir.resolve(name), thumbnailPath(name));
+            return name;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    // Fichier original, si le nom est valide et existe
+    public Optional<Path> resolve(String name) {
+        if (!COVER_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = coverDir.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    // Miniature si deja generee ; sinon la generation est (re)lancee en arriere-plan
+    public Optional<Path> resolveThumbnail(String name) {
+        return resolve(name).flatMap(original -> {
+            Path thumbnail = thumbnailPath(name);
+            if (Files.isRegularFile(thumbnail)) {
+                return Optional.of(thumbnail);
+            }
+            thumbnailer.schedule(original, thumbnail);
+            return Optional.empty();
+        });
+    }
+
+    private Path thumbnailPath(String name) {
+        return coverDir.resolve("thumbs").resolve(name.substring(0, name.indexOf('.')) + ".jpg");
+    }
+
+    private long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxSize) {
+                throw new IllegalArgumentException("Image trop volumineuse (max " + maxSize / 1024 + " Ko)");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Formats acceptes, reconnus par leur signature (pas par le Content-Type annonce)
+    @Getter
+    public enum ImageFormat {
+        JPEG("jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+        PNG("png", "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G'}),
+        GIF("gif", "image/gif", new byte[]{'G', 'I', 'F', '8'});
+
+        private final String extension;
+        private final String mediaType;
+        private final byte[] signature;
+
+        ImageFormat(String extension, String mediaType, byte[] signature) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+            this.signature = signature;
+        }
+
+        public static Optional<ImageFormat> detect(Path file) {
+            byte[] header = new byte[4];
+            int read;
+            try (InputStream in = Files.newInputStream(file)) {
+                read = in.readNBytes(header, 0, header.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (ImageFormat format : values()) {
+                if (read >= format.signature.length && startsWith(header, format.signature)) {
+                    return Optional.of(format);
+                }
+            }
+            return Optional.empty();
+        }
+
+        public static Optional<ImageFormat> fromFileName(String name) {
+            String extension = name.substring(name.lastIndexOf('.') + 1);
+            for (ImageFormat format : values()) {
+                if (format.extension.equals(extension)) {
+                    return Optional.of(format);
+                }
+            }
+            return Optional.empty();
+        }
+
+        private static boolean startsWith(byte[] header, byte[] signature) {
+            for (int i = 0; i < signature.length; i++) {
+                if (header[i] != signature[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
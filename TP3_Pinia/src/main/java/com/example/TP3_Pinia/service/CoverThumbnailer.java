@@ -0,0 +1,139 @@
+package com.example.TP3_Pinia.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Generation des miniatures de couverture (JPEG, largeur fixe) hors du thread de requete :
+// - pool dedie et borne : un afflux d'envois ne prend pas le CPU des requetes
+// - file pleine : la tache est abandonnee, elle sera relancee au premier affichage
+// - une seule generation en cours par image
+// - dimensions lues dans l'en-tete avant le decodage : une image trop grande (max-pixels)
+//   est refusee sans allouer son raster
+@Slf4j
+@Component
+public class CoverThumbnailer {
+
+    private final int width;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    public CoverThumbnailer(@Value("${covers.thumbnail.width}") int width,
+                            @Value("${covers.thumbnail.threads}") int threads,
+                            @Value("${covers.thumbnail.queue-capacity}") int queueCapacity,
+                            @Value("${covers.thumbnail.max-pixels}") long maxPixels) {
+        this.width = width;
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("cover-thumbnail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void schedule(Path original, Path thumbnail) {
+        if (!pending.add(thumbnail)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original, thumbnail);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Miniature impossible pour {} : {}", original.getFileName(), e.getMessage());
+                } finally {
+                    pending.remove(thumbnail);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(thumbnail);
+        }
+    }
+
+    void generate(Path original, Path thumbnail) throws IOException {
+        if (Files.exists(thumbnail)) {
+            return;
+        }
+        BufferedImage image = read(original);
+
+        BufferedImage resized = resize(image, Math.min(width, image.getWidth()));
+        Files.createDirectories(thumbnail.getParent());
+        Path tmp = Files.createTempFile(thumbnail.getParent(), "thumb-", ".tmp");
+        try {
+            ImageIO.write(resized, "jpg", tmp.toFile());
+            Files.move(tmp, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("image illisible");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                if ((long) w * h > maxPixels) {
+                    throw new IOException("image trop grande (" + w + "x" + h + ")");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Reduction par moities successives puis etape finale bilineaire :
+    // bien plus net qu'une reduction directe sur les grandes images.
+    // Fond blanc : le JPEG n'a pas de transparence (PNG/GIF)
+    private static BufferedImage resize(BufferedImage image, int targetWidth) {
+        int targetHeight = Math.max(1, Math.round((float) image.getHeight() * targetWidth / image.getWidth()));
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = step;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+}
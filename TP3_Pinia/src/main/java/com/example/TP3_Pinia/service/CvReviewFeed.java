@@ -0,0 +1,231 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import com.example.TP3_Pinia.model.CvReview;
+import com.example.TP3_Pinia.repository.CvReviewRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Flux temps reel des avis (Server-Sent Events) entierement en memoire :
+// - les N derniers evenements (creation, modification, suppression) dans un tampon circulaire,
+//   rejoues a la reconnexion a partir de Last-Event-ID
+// - les N avis les plus recents, envoyes en "snapshot" a la connexion
+//   (ou quand Last-Event-ID est trop ancien / d'une autre instance)
+// Aucune requete SQL par client : une seule lecture au demarrage, puis CvReviewChangedEvent.
+// Les envois passent par un thread dedie : un client lent ne ralentit pas l'ecriture d'un avis.
+@Component
+public class CvReviewFeed {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private final CvReviewRepository cvReviewRepository;
+    private final int capacity;
+    private final long timeoutMillis;
+
+    // Identifiants d'evenements "<epoque>-<sequence>" : une sequence d'une instance
+    // precedente (redemarrage) n'est jamais confondue avec la sequence courante
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Tampon circulaire des evenements (sequence s -> ring[s % capacity]) ; acces sous verrou
+    private final FeedEvent[] ring;
+    private long nextSeq = 1;
+
+    // Avis les plus recents, du plus ancien au plus recent (ordre d'insertion)
+    private final LinkedHashMap<Long, CvReview> recent = new LinkedHashMap<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("review-feed-"));
+
+    public CvReviewFeed(CvReviewRepository cvReviewRepository,
+                        @Value("${reviews.feed.buffer-size}") int capacity,
+                        @Value("${reviews.feed.timeout}") Duration timeout,
+                        MeterRegistry meterRegistry) {
+        this.cvReviewRepository = cvReviewRepository;
+        this.capacity = capacity;
+        this.timeoutMillis = timeout.toMillis();
+        this.ring = new FeedEvent[capacity];
+
+        Gauge.builder("reviews.feed.subscribers", subscribers, Set::size)
+                .description("Clients connectes au flux des avis")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<CvReview> latest = cvReviewRepository.findAllByOrderByCreatedAtDesc(Limit.of(capacity));
+        synchronized (this) {
+            recent.clear();
+            for (int i = latest.size() - 1; i >= 0; i--) {
+                recent.put(latest.get(i).getId(), latest.get(i));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(CvReviewChangedEvent event) {
+        CvReview review = event.getReview();
+        FeedEvent feedEvent;
+        synchronized (this) {
+            switch (event.getType()) {
+                case CREATED -> {
+                    recent.put(review.getId(), review);
+                    if (recent.size() > capacity) {
+                        Iterator<Long> oldest = recent.keySet().iterator();
+                        oldest.next();
+                        oldest.remove();
+                    }
+                    feedEvent = append(CREATED, review);
+                }
+                case UPDATED -> {
+                    recent.replace(review.getId(), review);
+                    feedEvent = append(UPDATED, review);
+                }
+                default -> {
+                    recent.remove(review.getId());
+                    feedEvent = append(DELETED, Map.of("id", review.getId()));
+                }
+            }
+        }
+        sender.execute(() -> subscribers.forEach(subscriber -> subscriber.send(feedEvent)));
+    }
+
+    // Nouveau client : snapshot ou rejeu depuis Last-Event-ID, puis evenements en direct
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        sender.execute(() -> {
+            List<FeedEvent> replay;
+            synchronized (this) {
+                replay = replaySince(lastEventId);
+                if (replay == null) {
+                    replay = List.of(new FeedEvent(nextSeq - 1, SNAPSHOT, snapshot()));
+                }
+            }
+            subscribers.add(subscriber);
+            replay.forEach(subscriber::send);
+        });
+        return emitter;
+    }
+
+    // Commentaire SSE periodique : garde les proxys ouverts et detecte les clients partis
+    @Scheduled(fixedDelayString = "${reviews.feed.heartbeat}")
+    public void heartbeat() {
+        sender.execute(() -> subscribers.forEach(Subscriber::ping));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private FeedEvent append(String name, Object data) {
+        FeedEvent event = new FeedEvent(nextSeq, name, data);
+        ring[(int) (nextSeq % capacity)] = event;
+        nextSeq++;
+        return event;
+    }
+
+    // Evenements posterieurs a lastEventId ; null si un snapshot est necessaire
+    private List<FeedEvent> replaySince(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldestSeq = Math.max(1, nextSeq - capacity);
+        if (lastSeq < oldestSeq - 1 || lastSeq >= nextSeq) {
+            return null;
+        }
+        List<FeedEvent> events = new ArrayList<>((int) (nextSeq - lastSeq - 1));
+        for (long seq = lastSeq + 1; seq < nextSeq; seq++) {
+            events.add(ring[(int) (seq % capacity)]);
+        }
+        return events;
+    }
+
+    // Du plus recent au plus ancien, comme GET /api/cv-reviews
+    private List<CvReview> snapshot() {
+        List<CvReview> reviews = new ArrayList<>(recent.values());
+        Collections.reverse(reviews);
+        return reviews;
+    }
+
+    private record FeedEvent(long seq, String name, Object data) {
+    }
+
+    // Toujours appele depuis le thread d'envoi : lastSeq n'a pas besoin d'etre synchronise
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private long lastSeq;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Ignore les evenements deja recus par le rejeu
+        void send(FeedEvent event) {
+            if (event.seq() <= lastSeq && !SNAPSHOT.equals(event.name())) {
+                return;
+            }
+            lastSeq = event.seq();
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(epoch + "-" + event.seq())
+                        .name(event.name())
+                        .data(event.data()));
+            } catch (IOException | IllegalStateException e) {
+                drop();
+            }
+        }
+
+        void ping() {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                drop();
+            }
+        }
+
+        // Connexion perdue : le conteneur termine lui-meme la requete asynchrone
+        private void drop() {
+            subscribers.remove(this);
+        }
+    }
+}
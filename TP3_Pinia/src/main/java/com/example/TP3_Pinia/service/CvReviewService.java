@@ -1,9 +1,15 @@
 package com.example.TP3_Pinia.service;
 
+import com.example.TP3_Pinia.dto.ReviewSubmission;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
 import com.example.TP3_Pinia.model.CvReview;
 import com.example.TP3_Pinia.repository.CvReviewRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +19,10 @@ import java.util.Optional;
 public class CvReviewService {
 
     private final CvReviewRepository cvReviewRepository;
+    private final CvReviewStatistics cvReviewStatistics;
+    private final CvReviewWriteBehind cvReviewWriteBehind;
+    private final CvReviewFeed cvReviewFeed;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<CvReview> findAll() {
         return cvReviewRepository.findAllByOrderByCreatedAtDesc();
@@ -22,24 +32,55 @@ public class CvReviewService {
         return cvReviewRepository.findById(id);
     }
 
+    // Evenement publie dans la transaction : les ecouteurs s'executent apres la validation
+    @Transactional
     public CvReview save(CvReview review) {
-        return cvReviewRepository.save(review);
+        // Copie : save() fusionne le nouvel etat dans l'instance geree renvoyee par findById
+        CvReview previous = review.getId() != null
+                ? cvReviewRepository.findById(review.getId()).map(existing -> existing.toBuilder().build()).orElse(null)
+                : null;
+
+        CvReview saved = cvReviewRepository.save(review);
+        eventPublisher.publishEvent(new CvReviewChangedEvent(
+                previous != null ? ChangeType.UPDATED : ChangeType.CREATED,
+                saved,
+                previous));
+        return saved;
     }
 
-    public boolean delete(Long id) {
-        if (cvReviewRepository.existsById(id)) {
-            cvReviewRepository.deleteById(id);
-            return true;
-        }
-        return false;
+    // Mode asynchrone actif : les nouveaux avis passent par la file d'ecriture
+    public boolean isWriteBehindEnabled() {
+        return cvReviewWriteBehind.isEnabled();
     }
 
-    public Double getAverageRating() {
-        Double avg = cvReviewRepository.getAverageRating();
-        return avg != null ? Math.round(avg * 10.0) / 10.0 : 0.0;
+    // Avis deja valide, enregistre plus tard par lot (ReviewIngestionRejectedException si file pleine)
+    public ReviewSubmission submit(CvReview review) {
+        return cvReviewWriteBehind.submit(review);
+    }
+
+    public Optional<ReviewSubmission> submissionStatus(String trackingId) {
+        return cvReviewWriteBehind.status(trackingId);
+    }
+
+    // Abonnement au flux temps reel (memoire uniquement)
+    public SseEmitter subscribe(String lastEventId) {
+        return cvReviewFeed.subscribe(lastEventId);
+    }
+
+    @Transactional
+    public boolean delete(Long id) {
+        return cvReviewRepository.findById(id)
+                .map(review -> {
+                    cvReviewRepository.delete(review);
+                    eventPublisher.publishEvent(new CvReviewChangedEvent(
+                            ChangeType.DELETED, review, null));
+                    return true;
+                })
+                .orElse(false);
     }
 
-    public long getReviewCount() {
-        return cvReviewRepository.count();
+    // Statistiques lues en memoire (aucune requete SQL)
+    public CvReviewStatistics.Snapshot getStatistics() {
+        return cvReviewStatistics.snapshot();
     }
 }
@@ -0,0 +1,122 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import com.example.TP3_Pinia.repository.CvReviewRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Statistiques des avis maintenues en memoire :
+// histogramme des notes 1..5 charge au demarrage puis recalcule periodiquement,
+// mis a jour a chaque creation / suppression (compteurs atomiques).
+// Le nombre d'avis et la somme des notes sont derives de l'histogramme,
+// ils restent donc toujours coherents entre eux.
+// Le chargement construit un nouvel histogramme et le substitue d'un bloc. Les ajustements
+// des ecritures transactionnelles (CvReviewService) sont alignes sur leur validation (ReloadLock).
+// Le mode differe publie apres la validation de son lot, hors transaction : un avis valide
+// juste avant un recalcul peut y etre compte deux fois, ecart corrige au recalcul suivant.
+@Component
+@RequiredArgsConstructor
+public class CvReviewStatistics {
+
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
+    private final CvReviewRepository cvReviewRepository;
+
+    private final ReloadLock reloadLock = new ReloadLock();
+
+    private volatile AtomicLongArray histogram = new AtomicLongArray(MAX_RATING - MIN_RATING + 1);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reviews.statistics.reconcile-interval:PT1H}",
+            initialDelayString = "${reviews.statistics.reconcile-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public void load() {
+        reloadLock.reload(() -> {
+            AtomicLongArray fresh = new AtomicLongArray(MAX_RATING - MIN_RATING + 1);
+            for (Object[] row : cvReviewRepository.countByRating()) {
+                adjust(fresh, (Integer) row[0], (Long) row[1]);
+            }
+            histogram = fresh;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onReviewChanged(CvReviewChangedEvent event) {
+        reloadLock.applyAtCommit(() -> {
+            AtomicLongArray counts = histogram;
+            if (event.getType() == ChangeType.DELETED) {
+                adjust(counts, event.getReview().getRating(), -1);
+                return;
+            }
+            if (event.getPrevious() != null) {
+                adjust(counts, event.getPrevious().getRating(), -1);
+            }
+            adjust(counts, event.getReview().getRating(), 1);
+        });
+    }
+
+    public Snapshot snapshot() {
+        AtomicLongArray current = histogram;
+        long[] counts = new long[current.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = current.get(i);
+        }
+        return new Snapshot(counts);
+    }
+
+    private static void adjust(AtomicLongArray counts, Integer rating, long delta) {
+        if (rating != null && rating >= MIN_RATING && rating <= MAX_RATING) {
+            counts.addAndGet(rating - MIN_RATING, delta);
+        }
+    }
+
+    // Vue figee de l'histogramme
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+        }
+
+        public long getTotal() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        // Moyenne arrondie a une decimale (0.0 si aucun avis)
+        public double getAverage() {
+            long total = 0;
+            long sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                total += counts[i];
+                sum += counts[i] * (i + MIN_RATING);
+            }
+            return total == 0 ? 0.0 : Math.round(sum * 10.0 / total) / 10.0;
+        }
+
+        // Nombre d'avis par note ("1" -> n, ..., "5" -> n)
+        public Map<String, Long> getDistribution() {
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                distribution.put(String.valueOf(i + MIN_RATING), counts[i]);
+            }
+            return distribution;
+        }
+    }
+}
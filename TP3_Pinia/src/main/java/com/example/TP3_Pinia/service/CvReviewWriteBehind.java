@@ -0,0 +1,278 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.ReviewSubmission;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import com.example.TP3_Pinia.model.CvReview;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Ecriture differee des avis (mode asynchrone, reviews.write-behind.enabled=true) :
+// - le thread de requete valide l'avis, le depose dans une file bornee et repond 202
+// - un thread d'ecriture vide la file par lots : un seul INSERT JDBC en batch par lot,
+//   dans une transaction (IDENTITY empeche Hibernate de regrouper les insertions)
+// - file pleine : refus immediat (ReviewIngestionRejectedException -> 503)
+// - a l'arret, la file est videe en base avant la fermeture du pool de connexions
+// Les evenements CvReviewChangedEvent sont publies apres chaque lot (statistiques, ETag).
+@Slf4j
+@Component
+public class CvReviewWriteBehind {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cv_reviews (author_name, email, comment, rating, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final long POLL_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final BlockingQueue<Pending> queue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Etat des envois recents, consultable par le client (borne en taille et en duree)
+    private final Cache<String, ReviewSubmission> submissions;
+
+    private final Timer flushTimer;
+    private final Timer ingestionLatency;
+    private final DistributionSummary batchSizes;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public CvReviewWriteBehind(@Value("${reviews.write-behind.enabled}") boolean enabled,
+                               @Value("${reviews.write-behind.queue-capacity}") int queueCapacity,
+                               @Value("${reviews.write-behind.batch-size}") int batchSize,
+                               @Value("${reviews.write-behind.max-delay}") Duration maxDelay,
+                               @Value("${reviews.write-behind.tracking-ttl}") Duration trackingTtl,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.submissions = Caffeine.newBuilder()
+                .maximumSize(Math.max(10_000, queueCapacity * 10L))
+                .expireAfterWrite(trackingTtl)
+                .build();
+
+        Gauge.builder("reviews.write_behind.queue.size", queue, BlockingQueue::size)
+                .description("Avis en attente d'ecriture")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("reviews.write_behind.flush")
+                .description("Duree d'ecriture d'un lot")
+                .register(meterRegistry);
+        this.ingestionLatency = Timer.builder("reviews.write_behind.latency")
+                .description("Delai entre la reception et l'enregistrement d'un avis")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("reviews.write_behind.batch.size")
+                .description("Avis par lot")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("reviews.write_behind.rejected")
+                .description("Avis refuses (file pleine)")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("reviews.write_behind.failed")
+                .description("Avis non enregistres (erreur base)")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::drainLoop, "review-writer");
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Depose un avis deja valide dans la file ; renvoie son suivi (PENDING)
+    public ReviewSubmission submit(CvReview review) {
+        if (!running) {
+            throw new ReviewIngestionRejectedException();
+        }
+        review.setId(null);
+        review.setCreatedAt(LocalDateTime.now());
+        Pending pending = new Pending(UUID.randomUUID().toString(), review, System.nanoTime());
+
+        ReviewSubmission submission = new ReviewSubmission(
+                pending.trackingId(), ReviewSubmission.Status.PENDING, null);
+        submissions.put(pending.trackingId(), submission);
+        if (!queue.offer(pending)) {
+            submissions.invalidate(pending.trackingId());
+            rejectedCounter.increment();
+            throw new ReviewIngestionRejectedException();
+        }
+        // Arret pendant le depot : l'ecrivain a pu vider la file et se terminer avant l'offer.
+        // Encore dans la file : on le retire et on refuse ; sinon l'ecrivain l'a pris et l'ecrira
+        if (!running && queue.remove(pending)) {
+            submissions.invalidate(pending.trackingId());
+            throw new ReviewIngestionRejectedException();
+        }
+        return submission;
+    }
+
+    public Optional<ReviewSubmission> status(String trackingId) {
+        return Optional.ofNullable(submissions.getIfPresent(trackingId));
+    }
+
+    // Vide la file avant la fermeture du pool de connexions (bean dependant detruit en premier)
+    // Pas d'interrupt : une ecriture H2 interrompue ferme le fichier de la base
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = running
+                        ? queue.poll(POLL_SLICE_NANOS, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Laisse le lot se remplir un court instant (au plus maxDelay),
+                // par tranches courtes pour reagir vite a l'arret
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(Math.min(remaining, POLL_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+            } catch (InterruptedException e) {
+                // Le lot en cours et la file restante sont tout de meme ecrits
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        long start = System.nanoTime();
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> insert(batch));
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            // Un avis invalide pour la base ne doit pas faire perdre tout le lot
+            log.warn("Lot de {} avis refuse ({}), insertion un par un", batch.size(), e.getMessage());
+            ids = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                try {
+                    ids.add(transactionTemplate.execute(status -> insert(List.of(pending))).get(0));
+                } catch (RuntimeException single) {
+                    ids.add(null);
+                    failedCounter.increment();
+                    submissions.put(pending.trackingId(), new ReviewSubmission(
+                            pending.trackingId(), ReviewSubmission.Status.FAILED, null));
+                }
+            }
+        }
+        // Hors du try : les avis sont valides en base, un ecouteur en echec ne doit ni
+        // les reinserer ni les marquer FAILED
+        for (int i = 0; i < batch.size(); i++) {
+            if (ids.get(i) != null) {
+                stored(batch.get(i), ids.get(i));
+            }
+        }
+    }
+
+    // INSERT en batch JDBC ; cles generees dans l'ordre du lot
+    private List<Long> insert(List<Pending> batch) {
+        return jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                (PreparedStatement statement) -> {
+                    for (Pending pending : batch) {
+                        CvReview review = pending.review();
+                        statement.setString(1, review.getAuthorName());
+                        if (review.getEmail() != null) {
+                            statement.setString(2, review.getEmail());
+                        } else {
+                            statement.setNull(2, Types.VARCHAR);
+                        }
+                        statement.setString(3, review.getComment());
+                        statement.setInt(4, review.getRating());
+                        statement.setTimestamp(5, Timestamp.valueOf(review.getCreatedAt()));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+
+                    List<Long> ids = new ArrayList<>(batch.size());
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                    if (ids.size() != batch.size()) {
+                        throw new IllegalStateException("Cles generees manquantes");
+                    }
+                    return ids;
+                });
+    }
+
+    private void stored(Pending pending, Long id) {
+        pending.review().setId(id);
+        ingestionLatency.record(System.nanoTime() - pending.receivedAt(), TimeUnit.NANOSECONDS);
+        submissions.put(pending.trackingId(), new ReviewSubmission(
+                pending.trackingId(), ReviewSubmission.Status.STORED, id));
+        try {
+            eventPublisher.publishEvent(new CvReviewChangedEvent(ChangeType.CREATED, pending.review(), null));
+        } catch (RuntimeException e) {
+            // Ex. flux SSE deja arrete pendant la vidange de fin : l'avis reste enregistre
+            log.warn("Evenement de l'avis {} non publie : {}", id, e.getMessage());
+        }
+    }
+
+    private record Pending(String trackingId, CvReview review, long receivedAt) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.model.RefreshToken;
+import com.example.TP3_Pinia.model.User;
+import com.example.TP3_Pinia.repository.RefreshTokenRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+// Jetons de rafraichissement opaques et tournants :
+// - le client recoit une valeur aleatoire, la base ne garde que son SHA-256
+// - chaque rafraichissement revoque le jeton presente et en emet un nouveau
+// - presenter un jeton deja revoque (vol / rejeu) revoque toute la famille
+// Aucun hachage BCrypt : un SELECT indexe (jeton + utilisateur), un UPDATE, un INSERT.
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh-expiration}") Duration refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Rotation {
+        private final User user;
+        private final String refreshToken;
+    }
+
+    // Nouveau jeton pour une nouvelle session (login)
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    // Echange un jeton valide contre un nouveau (vide si invalide, expire ou rejoue)
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return Optional.empty();
+        }
+
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken)).orElse(null);
+        if (current == null) {
+            return Optional.empty();
+        }
+        if (current.isRevoked() || refreshTokenRepository.revokeIfActive(current.getId()) == 0) {
+            // Jeton deja utilise : on ferme la session entiere
+            refreshTokenRepository.revokeFamily(current.getFamily());
+            return Optional.empty();
+        }
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+
+        String next = issue(current.getUser(), current.getFamily());
+        return Optional.of(new Rotation(current.getUser(), next));
+    }
+
+    // Deconnexion : revoque la session a laquelle appartient le jeton
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamily()));
+    }
+
+    // Purge des jetons expires (revoques ou non)
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private String issue(User user, String family) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(user)
+                .family(family)
+                .expiresAt(Instant.now().plus(refreshExpiration))
+                .revoked(false)
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
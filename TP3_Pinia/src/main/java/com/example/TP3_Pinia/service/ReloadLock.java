@@ -0,0 +1,58 @@
+package com.example.TP3_Pinia.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Verrou des compteurs en memoire recharges depuis la base (BookFacetCounts, CvReviewStatistics).
+// Une ecriture tient le verrou en lecture de BEFORE_COMMIT jusqu'a la fin de sa transaction,
+// et ajuste les compteurs juste apres la validation. Un rechargement (verrou en ecriture)
+// attend donc les validations en cours et bloque les suivantes le temps de ses requetes :
+// chaque ecriture est soit vue par les agregats (ajustement fait sur les anciens compteurs,
+// abandonnes), soit validee apres eux et appliquee aux nouveaux. Jamais comptee deux fois.
+final class ReloadLock {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Depuis un ecouteur BEFORE_COMMIT ; hors transaction (fallbackExecution), application immediate
+    void applyAtCommit(Runnable adjustment) {
+        lock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                adjustment.run();
+            } finally {
+                lock.readLock().unlock();
+            }
+            return;
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            adjustment.run();
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    // Requetes d'agregat + substitution des compteurs
+    void reload(Runnable reload) {
+        lock.writeLock().lock();
+        try {
+            reload.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+// Cache des reponses JSON deja serialisees (et deja compressees en gzip au-dela d'une taille) :
+// un hit ecrit directement les octets, sans ObjectMapper ni compression par requete.
+// - cle : espace (livres / avis) + parametres normalises de la requete
+// - chaque entree porte la version de la collection (ResourceVersions) pour laquelle elle a ete
+//   rendue : une entree rendue pendant une ecriture concurrente n'est jamais resservie
+// - invalidation de tout l'espace a chaque BookChangedEvent / CvReviewChangedEvent
+// - taille bornee en octets (et non en nombre d'entrees)
+// - la variante gzip a son propre ETag (suffixe "-gz") : les deux corps different octet a octet
+@Component
+public class RenderedResponseCache {
+
+    public static final String BOOKS = "books";
+    public static final String REVIEWS = "reviews";
+
+    private static final char SEPARATOR = '\u001f';
+
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+    private final Cache<String, Rendered> cache;
+
+    public RenderedResponseCache(ObjectMapper objectMapper,
+                                 @Value("${response-cache.max-size}") DataSize maxSize,
+                                 @Value("${response-cache.gzip-min-size}") DataSize gzipMinSize,
+                                 MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = (int) gzipMinSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Rendered rendered) -> rendered.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "renderedResponses");
+    }
+
+    // Cle normalisee : espace + parametres dans un ordre fixe
+    public static String key(String namespace, Object... parts) {
+        StringBuilder key = new StringBuilder(namespace);
+        for (Object part : parts) {
+            key.append(SEPARATOR).append(part != null ? part : "");
+        }
+        return key.toString();
+    }
+
+    // null si absent ou rendu pour une autre version de la collection
+    public Rendered get(String key, ResourceVersions.Version version) {
+        Rendered rendered = cache.getIfPresent(key);
+        return rendered != null && rendered.etag.equals(version.getEtag()) ? rendered : null;
+    }
+
+    // Serialise une seule fois (JSON + gzip) et conserve le resultat
+    public Rendered render(String key, ResourceVersions.Version version, Object body, String nextCursor) {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] gzip = json.length >= gzipMinSize ? gzip(json) : null;
+        Rendered rendered = new Rendered(version.getEtag(), version.getLastModified(), json, gzip, nextCursor);
+        cache.put(key, rendered);
+        return rendered;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        invalidate(BOOKS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        invalidate(BOOKS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(CvReviewChangedEvent event) {
+        invalidate(REVIEWS);
+    }
+
+    private void invalidate(String namespace) {
+        String prefix = namespace + SEPARATOR;
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+            compressed.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static final class Rendered {
+
+        private static final String GZIP_ETAG_SUFFIX = "-gz";
+
+        private final String etag;
+        private final long lastModified;
+        private final byte[] json;
+
+        // null sous le seuil de compression
+        private final byte[] gzip;
+
+        // Curseur de la page suivante (listes paginees), null sinon
+        private final String nextCursor;
+
+        private Rendered(String etag, long lastModified, byte[] json, byte[] gzip, String nextCursor) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.json = json;
+            this.gzip = gzip;
+            this.nextCursor = nextCursor;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        // GET conditionnel sur l'ETag de la variante servie, puis corps brut
+        // (ByteArrayHttpMessageConverter) : variante gzip si le client l'accepte.
+        // null si 304 ; Vary: Accept-Encoding dans les deux cas, sinon un cache
+        // partage pourrait revalider une variante avec l'ETag de l'autre
+        public ResponseEntity<byte[]> write(ResponseEntity.BodyBuilder response, String acceptEncoding,
+                                            WebRequest webRequest) {
+            boolean gzipped = gzip != null && acceptsGzip(acceptEncoding);
+            String variantEtag = gzipped
+                    ? etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\""
+                    : etag;
+            if (webRequest.checkNotModified(variantEtag, lastModified)) {
+                if (webRequest instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+                    servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return null;
+            }
+            response.contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzipped) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .contentLength(gzip.length)
+                        .body(gzip);
+            }
+            return response.contentLength(json.length).body(json);
+        }
+
+        private int weight() {
+            return json.length + (gzip != null ? gzip.length : 0) + 64;
+        }
+
+        private static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            for (String coding : acceptEncoding.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").equals("q=0");
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Versions des collections (livres, avis) et de chaque livre, pour les GET conditionnels.
+// Toutes les versions viennent d'un meme compteur qui ne fait qu'augmenter ; il part
+// de l'heure de demarrage pour qu'un ETag emis avant un redemarrage ne soit jamais
+// reutilise pour un autre contenu.
+@Component
+public class ResourceVersions {
+
+    // Nombre maximal de livres suivis individuellement (import en masse)
+    private static final long MAX_TRACKED_BOOKS = 100_000;
+
+    private final AtomicReference<Version> latest;
+    private final AtomicReference<Version> books;
+    private final AtomicReference<Version> reviews;
+
+    // Version des livres modifies depuis le demarrage (bornee)
+    private final Cache<Long, Version> bookVersions;
+
+    // Plus grande version sortie de bookVersions : un livre sans entree a au plus
+    // cette version, qu'on lui attribue (quitte a renvoyer un 200 de trop, jamais un 304 a tort)
+    private final AtomicReference<Version> evicted;
+
+    public ResourceVersions() {
+        long now = System.currentTimeMillis();
+        Version initial = new Version(now, truncateToSeconds(now));
+        this.latest = new AtomicReference<>(initial);
+        this.books = new AtomicReference<>(initial);
+        this.reviews = new AtomicReference<>(initial);
+        this.evicted = new AtomicReference<>(initial);
+        this.bookVersions = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_BOOKS)
+                .evictionListener((Long id, Version version, RemovalCause cause) ->
+                        evicted.accumulateAndGet(version, Version::max))
+                .build();
+    }
+
+    public Version books() {
+        return books.get();
+    }
+
+    public Version book(Long id) {
+        Version version = bookVersions.getIfPresent(id);
+        return version != null ? version : evicted.get();
+    }
+
+    public Version reviews() {
+        return reviews.get();
+    }
+
+    // Juste apres BookRangeIndex, avant les autres ecouteurs (invalidation des caches)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Version version = latest.updateAndGet(Version::next);
+        bookVersions.put(event.getBook().getId(), version);
+        books.accumulateAndGet(version, Version::max);
+    }
+
+    // Une seule nouvelle version pour tout le lot
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        Version version = latest.updateAndGet(Version::next);
+        event.getBooks().forEach(book -> bookVersions.put(book.getId(), version));
+        books.accumulateAndGet(version, Version::max);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(CvReviewChangedEvent event) {
+        reviews.accumulateAndGet(latest.updateAndGet(Version::next), Version::max);
+    }
+
+    private static long truncateToSeconds(long millis) {
+        return millis - millis % 1000;
+    }
+
+    public static final class Version {
+
+        private final long version;
+
+        // Precision HTTP : la seconde
+        private final long lastModified;
+
+        private Version(long version, long lastModified) {
+            this.version = version;
+            this.lastModified = lastModified;
+        }
+
+        // Last-Modified n'a qu'une precision a la seconde : deux ecritures dans la
+        // meme seconde ne se distinguent que par l'ETag, qui prime (If-None-Match)
+        private Version next() {
+            long now = truncateToSeconds(System.currentTimeMillis());
+            return new Version(version + 1, Math.max(now, lastModified));
+        }
+
+        private static Version max(Version a, Version b) {
+            return a.version >= b.version ? a : b;
+        }
+
+        public String getEtag() {
+            return "\"" + Long.toString(version, 36) + "\"";
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.TP3_Pinia.service;
+
+// File d'ecriture des avis pleine : la requete doit etre refusee (503)
+public class ReviewIngestionRejectedException extends RuntimeException {
+
+    public ReviewIngestionRejectedException() {
+        super("Trop d'avis en cours d'enregistrement, reessayez plus tard");
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +20,10 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
+    // Hash de reference pour les utilisateurs inconnus : le login coute un BCrypt
+    // dans tous les cas, le temps de reponse ne revele pas si le compte existe
+    private volatile String dummyHash;
+
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
@@ -34,6 +39,36 @@ public class UserService implements UserDetailsService {
         );
     }
 
+    // Verifie les identifiants : une requete (utilisateur par username) + un BCrypt
+    // PasswordHashingRejectedException si le pool de hachage est sature
+    public Optional<User> authenticate(String username, String password) {
+        User user = username != null ? userRepository.findByUsername(username).orElse(null) : null;
+        String rawPassword = password != null ? password : "";
+        if (user == null) {
+            passwordEncoder.matches(rawPassword, dummyHash());
+            return Optional.empty();
+        }
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            return Optional.empty();
+        }
+
+        // Force de hachage modifiee depuis l'inscription : on re-hache avec le mot de passe en clair
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            userRepository.save(user);
+        }
+        return Optional.of(user);
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("utilisateur-inconnu");
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
     public User createUser(RegisterRequest request) {
         User user = new User();
         user.setUsername(request.getUsername());
@@ -0,0 +1,53 @@
+-- =========================
+-- Schema initial (H2 en mode PostgreSQL / PostgreSQL)
+-- Doit correspondre aux entites : valide au demarrage (ddl-auto=validate)
+-- =========================
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+-- Identifiants alloues par blocs de 50 (allocationSize de Book)
+CREATE SEQUENCE books_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE books (
+    id               BIGINT PRIMARY KEY,
+    title            VARCHAR(200)     NOT NULL,
+    author           VARCHAR(100)     NOT NULL,
+    isbn             VARCHAR(14)      NOT NULL,
+    price            DOUBLE PRECISION NOT NULL,
+    description      VARCHAR(1000),
+    category         VARCHAR(255),
+    publication_year INTEGER          NOT NULL,
+    cover_url        VARCHAR(255),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE cv_reviews (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    author_name VARCHAR(100)  NOT NULL,
+    email       VARCHAR(150),
+    comment     VARCHAR(1000) NOT NULL,
+    rating      INTEGER       NOT NULL,
+    created_at  TIMESTAMP(6)  NOT NULL
+);
+
+-- =========================
+-- Index secondaires
+-- =========================
+
+-- Filtre par categorie, trie par titre (pagination keyset : title, id)
+CREATE INDEX idx_books_category_title ON books (category, title, id);
+-- Filtre / regroupement par auteur
+CREATE INDEX idx_books_author ON books (author);
+-- Tri par titre (liste par defaut), par prix et par annee : id departage les ex aequo
+CREATE INDEX idx_books_title ON books (title, id);
+CREATE INDEX idx_books_price ON books (price, id);
+CREATE INDEX idx_books_publication_year ON books (publication_year, id);
+
+-- Liste des avis, du plus recent au plus ancien
+CREATE INDEX idx_cv_reviews_created_at ON cv_reviews (created_at DESC);
@@ -0,0 +1,19 @@
+-- =========================
+-- Jetons de rafraichissement (hash SHA-256, rotation par famille)
+-- =========================
+
+CREATE TABLE refresh_tokens (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash VARCHAR(64)  NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    family     VARCHAR(36)  NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked    BOOLEAN      NOT NULL,
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Revocation d'une session entiere
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family);
+-- Purge des jetons expires
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,13 @@
+-- =========================
+-- Journal des modifications du catalogue (GET /api/books/changes)
+-- =========================
+
+CREATE TABLE book_changes (
+    seq        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    book_id    BIGINT      NOT NULL,
+    kind       VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- Compactage : entrees plus recentes du meme livre
+CREATE INDEX idx_book_changes_book_id ON book_changes (book_id, seq);
@@ -0,0 +1,7 @@
+-- =========================
+-- Filtres combines du catalogue : categorie + plage de prix / d'annee
+-- =========================
+
+-- Egalite sur la categorie puis parcours ordonne de la plage (id : cle du curseur)
+CREATE INDEX idx_books_category_price ON books (category, price, id);
+CREATE INDEX idx_books_category_publication_year ON books (category, publication_year, id);
@@ -0,0 +1,175 @@
+package com.example.TP3_Pinia.controller;
+
+import com.example.TP3_Pinia.service.CoverStorage;
+import com.example.TP3_Pinia.service.CoverThumbnailer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverControllerTest {
+
+    @TempDir
+    Path coverDir;
+
+    private CoverThumbnailer thumbnailer;
+    private CoverController controller;
+    private String name;
+    private byte[] content;
+
+    @BeforeEach
+    void storeCover() throws Exception {
+        thumbnailer = new CoverThumbnailer(16, 1, 4, 1_000_000);
+        CoverStorage storage = new CoverStorage(coverDir.toString(), DataSize.ofMegabytes(1), thumbnailer);
+        controller = new CoverController(storage);
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "png", png);
+        name = storage.store(new ByteArrayInputStream(png.toByteArray()));
+        content = Files.readAllBytes(coverDir.resolve(name));
+
+        // Miniature generee en arriere-plan : on l'attend pour ne pas la couper au nettoyage du dossier
+        Path thumbnail = coverDir.resolve("thumbs").resolve(name.replace(".png", ".jpg"));
+        for (int i = 0; i < 100 && !Files.exists(thumbnail); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @AfterEach
+    void stopThumbnailer() {
+        thumbnailer.shutdown();
+    }
+
+    @Test
+    void withoutRangeTheWholeFileIsServed() throws Exception {
+        MockHttpServletResponse response = get(null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("image/png", response.getContentType());
+        assertEquals(etag(), response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void singleRangesAreServedPartially() throws Exception {
+        int length = content.length;
+
+        assertPartial(get("bytes=0-9", null), 0, 10);
+        // Plage ouverte et plage suffixe
+        assertPartial(get("bytes=5-", null), 5, length);
+        assertPartial(get("bytes=-4", null), length - 4, length);
+        // Fin au-dela du fichier ou suffixe plus long que le fichier : bornes au fichier
+        assertPartial(get("bytes=10-999999", null), 10, length);
+        assertPartial(get("bytes=-999999", null), 0, length);
+    }
+
+    @Test
+    void rangeOutsideTheFileIsNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = get("bytes=" + content.length + "-", null);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */" + content.length, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(416, get("bytes=-0", null).getStatus());
+    }
+
+    @Test
+    void unsupportedRangesFallBackToTheWholeFile() throws Exception {
+        for (String range : new String[]{"bytes=0-1,4-5", "items=0-9", "bytes=abc", "bytes=x-y"}) {
+            MockHttpServletResponse response = get(range, null);
+            assertEquals(200, response.getStatus(), range);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+            assertArrayEquals(content, response.getContentAsByteArray(), range);
+        }
+    }
+
+    @Test
+    void ifRangeHonoursTheRangeOnlyForTheCurrentVersion() throws Exception {
+        assertPartial(get("bytes=0-9", etag()), 0, 10);
+
+        // Autre version (ou date) : la plage est ignoree, le fichier complet est renvoye
+        for (String stale : new String[]{"\"autre\"", "Wed, 21 Oct 2015 07:28:00 GMT"}) {
+            MockHttpServletResponse response = get("bytes=0-9", stale);
+            assertEquals(200, response.getStatus(), stale);
+            assertArrayEquals(content, response.getContentAsByteArray(), stale);
+        }
+    }
+
+    @Test
+    void headAnnouncesThePartialLengthWithoutBody() throws Exception {
+        MockHttpServletRequest request = request("HEAD");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getCover(name, null, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws Exception {
+        MockHttpServletRequest request = request("GET");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getCover(name, null, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void unknownOrInvalidNamesAreNotFound() throws Exception {
+        for (String unknown : new String[]{"0".repeat(64) + ".png", "../application.properties", "cover.png"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            controller.getCover(unknown, null, request("GET"), response);
+            assertEquals(404, response.getStatus(), unknown);
+        }
+    }
+
+    private MockHttpServletResponse get(String range, String ifRange) throws Exception {
+        MockHttpServletRequest request = request("GET");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getCover(name, null, request, response);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method) {
+        return new MockHttpServletRequest(method, "/api/covers/" + name);
+    }
+
+    private void assertPartial(MockHttpServletResponse response, int start, int end) {
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes " + start + "-" + (end - 1) + "/" + content.length,
+                response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(end - start, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(content, start, end), response.getContentAsByteArray());
+    }
+
+    private String etag() {
+        return "\"" + name.substring(0, name.indexOf('.')) + "\"";
+    }
+}
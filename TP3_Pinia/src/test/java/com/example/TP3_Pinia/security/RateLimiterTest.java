@@ -0,0 +1,139 @@
+package com.example.TP3_Pinia.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void burstThenRefill() {
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter rateLimiter = new RateLimiter(clock::get);
+        RateLimiter.Limit limit = RateLimiter.Limit.of(3, Duration.ofSeconds(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("ip:1", limit));
+        }
+        long wait = rateLimiter.tryAcquire("ip:1", limit);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        // Un autre client n'est pas affecte
+        assertEquals(0, rateLimiter.tryAcquire("ip:2", limit));
+
+        // Un jeton par seconde
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, rateLimiter.tryAcquire("ip:1", limit));
+        assertTrue(rateLimiter.tryAcquire("ip:1", limit) > 0);
+    }
+
+    @Test
+    void evictIdleRemovesOnlyRefilledBuckets() {
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter rateLimiter = new RateLimiter(clock::get);
+        RateLimiter.Limit limit = RateLimiter.Limit.of(2, Duration.ofSeconds(2));
+
+        rateLimiter.tryAcquire("ip:1", limit);
+        rateLimiter.tryAcquire("ip:2", limit);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        rateLimiter.tryAcquire("ip:2", limit);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        rateLimiter.evictIdle();
+        assertEquals(1, rateLimiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    void sameKeyUnderContentionGrantsExactlyCapacity() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter();
+        RateLimiter.Limit limit = RateLimiter.Limit.of(1_000, Duration.ofDays(1));
+        LongAdder granted = new LongAdder();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 1_000; i++) {
+                if (rateLimiter.tryAcquire("user:admin", limit) == 0) {
+                    granted.increment();
+                }
+            }
+        });
+
+        assertEquals(1_000, granted.sum());
+    }
+
+    @Test
+    void overheadStaysLowUnderManyThreads() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter();
+        RateLimiter.Limit limit = RateLimiter.Limit.of(10, Duration.ofDays(1));
+        int perThread = 200_000;
+        int clients = 10_000;
+        LongAdder rejected = new LongAdder();
+
+        // Echauffement JIT
+        for (int i = 0; i < perThread; i++) {
+            rateLimiter.tryAcquire("warmup:" + (i % clients), limit);
+        }
+
+        long start = System.nanoTime();
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                // Beaucoup de clients partages entre threads : collisions CAS et lectures concurrentes
+                if (rateLimiter.tryAcquire("ip:" + ((i * 31 + thread) % clients), limit) > 0) {
+                    rejected.increment();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+
+        long operations = (long) THREADS * perThread;
+        double nanosPerOperation = (double) elapsed * Math.min(THREADS, Runtime.getRuntime().availableProcessors())
+                / operations;
+
+        // Chaque client ne recoit que ses 10 jetons : tout le reste est refuse
+        assertEquals(operations - (long) clients * limit.getCapacity(), rejected.sum());
+        // Borne large (machines de CI lentes) : l'ordre de grandeur attendu est la centaine de ns
+        assertTrue(nanosPerOperation < 20_000, "Surcout du limiteur trop eleve : " + nanosPerOperation + " ns/op");
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
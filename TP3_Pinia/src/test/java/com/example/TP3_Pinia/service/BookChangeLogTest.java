@@ -0,0 +1,234 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookChanges;
+import com.example.TP3_Pinia.event.BookChangedEvent;
+import com.example.TP3_Pinia.event.BooksImportedEvent;
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookChange;
+import com.example.TP3_Pinia.repository.BookChangeRepository;
+import com.example.TP3_Pinia.repository.BookRepository;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Journal sur une base H2 reelle (schema des migrations) : les requetes de compactage
+// et de purge sont celles de BookChangeRepository, pas une reimplementation.
+class BookChangeLogTest {
+
+    private final Map<Long, Book> books = new LinkedHashMap<>();
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private BookChangeRepository changeRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private BookChangeLog log;
+
+    @BeforeEach
+    void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:book-changes-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V3__book_changes.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setManagedTypes(PersistenceManagedTypes.of(BookChange.class.getName()));
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Noms de colonnes de Spring Boot (bookId -> book_id)
+        entityManagerFactory.setJpaPropertyMap(Map.of(AvailableSettings.PHYSICAL_NAMING_STRATEGY,
+                CamelCaseToUnderscoresNamingStrategy.class.getName()));
+        entityManagerFactory.afterPropertiesSet();
+
+        changeRepository = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject()))
+                .getRepository(BookChangeRepository.class);
+        transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory.getObject()));
+        log = changeLog(Duration.ZERO, Duration.ofDays(30));
+    }
+
+    @AfterEach
+    void dropSchema() {
+        entityManagerFactory.destroy();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void sinceReturnsCurrentStateOncePerBook() {
+        Book dune = book(1L, "Dune");
+        Book alcools = book(2L, "Alcools");
+        publish(new BookChangedEvent(ChangeType.CREATED, dune, null));
+        publish(new BookChangedEvent(ChangeType.CREATED, alcools, null));
+        Book renamed = book(1L, "Dune (nouvelle edition)");
+        publish(new BookChangedEvent(ChangeType.UPDATED, renamed, dune));
+        publish(new BookChangedEvent(ChangeType.DELETED, alcools, null));
+        books.remove(2L);
+
+        BookChanges changes = log.since(0, 100);
+
+        assertEquals(List.of(renamed), changes.getUpserts());
+        assertEquals(List.of(2L), changes.getDeletions());
+        assertEquals(4, changes.getNextSince());
+        assertFalse(changes.isHasMore());
+
+        // Rien de nouveau : meme point de reprise
+        BookChanges none = log.since(changes.getNextSince(), 100);
+        assertTrue(none.getUpserts().isEmpty() && none.getDeletions().isEmpty());
+        assertEquals(4, none.getNextSince());
+    }
+
+    @Test
+    void pagesFollowTheJournalOrder() {
+        publish(new BooksImportedEvent(List.of(book(1L, "A"), book(2L, "B"), book(3L, "C"))));
+
+        BookChanges first = log.since(0, 2);
+        assertEquals(List.of(1L, 2L), first.getUpserts().stream().map(Book::getId).toList());
+        assertEquals(2, first.getNextSince());
+        assertTrue(first.isHasMore());
+
+        BookChanges second = log.since(first.getNextSince(), 2);
+        assertEquals(List.of(3L), second.getUpserts().stream().map(Book::getId).toList());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void upsertOfABookDeletedSinceIsServedAsDeletion() {
+        Book book = book(1L, "Candide");
+        publish(new BookChangedEvent(ChangeType.CREATED, book, null));
+        publish(new BookChangedEvent(ChangeType.UPDATED, book, book));
+        books.remove(1L);
+
+        // Page limitee a la creation : le livre n'existe plus, le client doit l'oublier
+        BookChanges changes = log.since(0, 1);
+
+        assertTrue(changes.getUpserts().isEmpty());
+        assertEquals(List.of(1L), changes.getDeletions());
+    }
+
+    @Test
+    void unsettledEntriesAreNotServed() {
+        BookChangeLog delayed = changeLog(Duration.ofHours(1), Duration.ofDays(30));
+        BookChangedEvent created = new BookChangedEvent(ChangeType.CREATED, book(1L, "Dune"), null);
+        transaction.executeWithoutResult(status -> delayed.onBookChanged(created));
+
+        // Une ecriture concurrente pourrait encore valider un seq inferieur
+        assertEquals(0, delayed.lastSeq());
+        assertEquals(1, delayed.headSeq());
+        assertTrue(delayed.since(0, 100).getUpserts().isEmpty());
+
+        age(1L, Instant.now().minus(Duration.ofHours(2)));
+        assertEquals(1, delayed.lastSeq());
+        assertEquals(1, delayed.since(0, 100).getUpserts().size());
+    }
+
+    @Test
+    void compactionKeepsTheLatestEntryOfEachBook() {
+        Book book = book(1L, "Dune");
+        publish(new BookChangedEvent(ChangeType.CREATED, book, null));
+        publish(new BookChangedEvent(ChangeType.UPDATED, book, book));
+        publish(new BookChangedEvent(ChangeType.CREATED, book(2L, "Alcools"), null));
+
+        BookChanges before = log.since(0, 100);
+        transaction.executeWithoutResult(status -> log.compact());
+
+        assertEquals(List.of(2L, 3L), seqs());
+        // Delta identique, seuls les etats intermediaires ont disparu
+        assertEquals(before, log.since(0, 100));
+        assertEquals(0, log.horizon());
+    }
+
+    @Test
+    void expiredTombstonesMoveTheHorizon() {
+        Instant old = Instant.now().minus(Duration.ofDays(40));
+        for (long id = 1; id <= 3; id++) {
+            publish(new BookChangedEvent(ChangeType.DELETED, book(id, "Livre " + id), null));
+            books.remove(id);
+        }
+        age(1L, old);
+        age(2L, old);
+
+        transaction.executeWithoutResult(status -> log.compact());
+
+        // Seule la plus recente des suppressions expirees reste, comme borne du journal
+        assertEquals(List.of(2L, 3L), seqs());
+        assertEquals(2, log.horizon());
+
+        // Apres un redemarrage, la borne est relue depuis le journal
+        BookChangeLog restarted = changeLog(Duration.ZERO, Duration.ofDays(30));
+        assertEquals(0, restarted.horizon());
+        restarted.loadHorizon();
+        assertEquals(2, restarted.horizon());
+    }
+
+    private BookChangeLog changeLog(Duration settleDelay, Duration tombstoneRetention) {
+        return new BookChangeLog(changeRepository, bookRepository(books), settleDelay, tombstoneRetention);
+    }
+
+    // Les ecouteurs s'executent dans la transaction de l'ecriture (BEFORE_COMMIT)
+    private void publish(BookChangedEvent event) {
+        transaction.executeWithoutResult(status -> log.onBookChanged(event));
+    }
+
+    private void publish(BooksImportedEvent event) {
+        transaction.executeWithoutResult(status -> log.onBooksImported(event));
+    }
+
+    private void age(long seq, Instant changedAt) {
+        jdbcTemplate.update("UPDATE book_changes SET changed_at = ? WHERE seq = ?", Timestamp.from(changedAt), seq);
+    }
+
+    private List<Long> seqs() {
+        return jdbcTemplate.queryForList("SELECT seq FROM book_changes ORDER BY seq", Long.class);
+    }
+
+    private Book book(long id, String title) {
+        Book book = Book.builder().id(id).title(title).build();
+        books.put(id, book);
+        return book;
+    }
+
+    private static BookRepository bookRepository(Map<Long, Book> books) {
+        return proxy(BookRepository.class, (name, args) -> switch (name) {
+            case "findAllById" -> ((Collection<?>) args[0]).stream()
+                    .map(books::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+}
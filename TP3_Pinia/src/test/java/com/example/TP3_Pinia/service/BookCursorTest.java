@@ -0,0 +1,102 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.BookSummary;
+import com.example.TP3_Pinia.model.Book;
+import com.example.TP3_Pinia.model.BookCategory;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCursorTest {
+
+    @Test
+    void roundTripKeepsSortValueAndId() {
+        Book last = Book.builder().id(42L).title("Les Miserables").price(12.5).publicationYear(1862).build();
+
+        assertEquals(Map.of("title", "Les Miserables", "id", 42L),
+                keys(BookCursor.decode(BookCursor.encode(BookSortField.TITLE, Sort.Direction.ASC, last),
+                        BookSortField.TITLE, Sort.Direction.ASC)));
+        assertEquals(Map.of("price", 12.5, "id", 42L),
+                keys(BookCursor.decode(BookCursor.encode(BookSortField.PRICE, Sort.Direction.DESC, last),
+                        BookSortField.PRICE, Sort.Direction.DESC)));
+        assertEquals(Map.of("publicationYear", 1862, "id", 42L),
+                keys(BookCursor.decode(BookCursor.encode(BookSortField.PUBLICATION_YEAR, Sort.Direction.ASC, last),
+                        BookSortField.PUBLICATION_YEAR, Sort.Direction.ASC)));
+        // Tri par id : une seule cle
+        assertEquals(Map.of("id", 42L),
+                keys(BookCursor.decode(BookCursor.encode(BookSortField.ID, Sort.Direction.ASC, last),
+                        BookSortField.ID, Sort.Direction.ASC)));
+    }
+
+    @Test
+    void summaryAndEntityProduceTheSameCursor() {
+        Book book = Book.builder().id(7L).title("Alcools").price(9.9).publicationYear(1913).build();
+        BookSummary summary = new BookSummary(7L, "Alcools", "Apollinaire", "978-0000000007",
+                9.9, BookCategory.POESIE, 1913, null);
+
+        assertEquals(BookCursor.encode(BookSortField.TITLE, Sort.Direction.ASC, book),
+                BookCursor.encode(BookSortField.TITLE, Sort.Direction.ASC, summary));
+    }
+
+    @Test
+    void separatorInTitleIsPreserved() {
+        Book last = Book.builder().id(3L).title("Avant|Apres|Fin").build();
+
+        String token = BookCursor.encode(BookSortField.TITLE, Sort.Direction.ASC, last);
+
+        assertEquals(Map.of("title", "Avant|Apres|Fin", "id", 3L),
+                keys(BookCursor.decode(token, BookSortField.TITLE, Sort.Direction.ASC)));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        Book last = Book.builder().id(1L).title("???>>>~~~").build();
+
+        String token = BookCursor.encode(BookSortField.TITLE, Sort.Direction.ASC, last);
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void missingTokenStartsFromTheBeginning() {
+        assertTrue(BookCursor.decode(null, BookSortField.TITLE, Sort.Direction.ASC).isInitial());
+        assertTrue(BookCursor.decode(" ", BookSortField.TITLE, Sort.Direction.ASC).isInitial());
+    }
+
+    @Test
+    void cursorIsBoundToItsSort() {
+        Book last = Book.builder().id(5L).title("Candide").price(4.0).build();
+        String token = BookCursor.encode(BookSortField.TITLE, Sort.Direction.ASC, last);
+
+        IllegalArgumentException otherField = assertThrows(IllegalArgumentException.class,
+                () -> BookCursor.decode(token, BookSortField.PRICE, Sort.Direction.ASC));
+        assertEquals("Curseur invalide pour ce tri", otherField.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> BookCursor.decode(token, BookSortField.TITLE, Sort.Direction.DESC));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        // id ou valeur non numerique, segment manquant, puis Base64 invalide
+        for (String raw : new String[]{"PRICE|ASC|abc|1.0", "PRICE|ASC|1|cher", "TITLE|ASC|1"}) {
+            String token = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            BookSortField field = raw.startsWith("PRICE") ? BookSortField.PRICE : BookSortField.TITLE;
+            assertThrows(IllegalArgumentException.class,
+                    () -> BookCursor.decode(token, field, Sort.Direction.ASC), raw);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> BookCursor.decode("%%%", BookSortField.TITLE, Sort.Direction.ASC));
+    }
+
+    private static Map<String, Object> keys(ScrollPosition position) {
+        return ((KeysetScrollPosition) position).getKeys();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.TP3_Pinia.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverThumbnailerTest {
+
+    @TempDir
+    Path dir;
+
+    // 100 x 100 = 10 000 pixels au plus
+    private final CoverThumbnailer thumbnailer = new CoverThumbnailer(16, 1, 4, 10_000);
+
+    @AfterEach
+    void stopThumbnailer() {
+        thumbnailer.shutdown();
+    }
+
+    @Test
+    void imageWithinTheLimitIsResized() throws IOException {
+        Path original = png(100, 100);
+        Path thumbnail = dir.resolve("thumbs").resolve("cover.jpg");
+
+        thumbnailer.generate(original, thumbnail);
+
+        BufferedImage resized = ImageIO.read(thumbnail.toFile());
+        assertEquals(16, resized.getWidth());
+        assertEquals(16, resized.getHeight());
+    }
+
+    @Test
+    void imageAboveTheLimitIsRejectedBeforeDecoding() throws IOException {
+        Path original = png(101, 100);
+        Path thumbnail = dir.resolve("thumbs").resolve("cover.jpg");
+
+        IOException error = assertThrows(IOException.class, () -> thumbnailer.generate(original, thumbnail));
+        assertTrue(error.getMessage().contains("101x100"));
+        assertFalse(Files.exists(thumbnail));
+    }
+
+    @Test
+    void unreadableFileIsRejected() throws IOException {
+        Path original = Files.write(dir.resolve("cover.png"), new byte[]{1, 2, 3});
+
+        assertThrows(IOException.class, () -> thumbnailer.generate(original, dir.resolve("cover.jpg")));
+    }
+
+    private Path png(int width, int height) throws IOException {
+        Path file = dir.resolve("cover.png");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return file;
+    }
+}
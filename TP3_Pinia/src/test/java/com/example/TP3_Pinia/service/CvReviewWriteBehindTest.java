@@ -0,0 +1,162 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.dto.ReviewSubmission;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import com.example.TP3_Pinia.model.CvReview;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CvReviewWriteBehindTest {
+
+    private final Queue<Object> events = new ConcurrentLinkedQueue<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CvReviewWriteBehind> writers = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:write-behind-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__init_schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void stopWriters() throws InterruptedException {
+        for (CvReviewWriteBehind writeBehind : writers) {
+            writeBehind.shutdown();
+        }
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void reviewsAreStoredInBatches() throws InterruptedException {
+        CvReviewWriteBehind writeBehind = writeBehind(true, 100, 10, Duration.ofMillis(200));
+
+        List<ReviewSubmission> submissions = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            submissions.add(writeBehind.submit(review("Auteur " + i)));
+        }
+        assertEquals(ReviewSubmission.Status.PENDING, submissions.get(0).getStatus());
+        writeBehind.shutdown();
+
+        assertEquals(25, count());
+        for (ReviewSubmission submission : submissions) {
+            ReviewSubmission status = writeBehind.status(submission.getTrackingId()).orElseThrow();
+            assertEquals(ReviewSubmission.Status.STORED, status.getStatus());
+            assertNotNull(status.getReviewId());
+        }
+        assertEquals(25, events.stream().filter(CvReviewChangedEvent.class::isInstance).count());
+        // Lots bornes par batch-size
+        assertTrue(meterRegistry.get("reviews.write_behind.batch.size").summary().max() <= 10);
+    }
+
+    @Test
+    void shutdownDrainsTheQueueWithoutWaitingForTheBatchDelay() throws InterruptedException {
+        CvReviewWriteBehind writeBehind = writeBehind(true, 1_000, 500, Duration.ofSeconds(30));
+        for (int i = 0; i < 200; i++) {
+            writeBehind.submit(review("Auteur " + i));
+        }
+
+        long start = System.nanoTime();
+        writeBehind.shutdown();
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos(), "Arret trop lent");
+        assertEquals(200, count());
+
+        // Apres l'arret, plus aucun avis n'est accepte
+        assertThrows(ReviewIngestionRejectedException.class, () -> writeBehind.submit(review("Trop tard")));
+    }
+
+    @Test
+    void fullQueueRejectsImmediately() {
+        // Ecrivain non demarre : la file ne se vide pas
+        CvReviewWriteBehind writeBehind = writeBehind(false, 2, 10, Duration.ofMillis(10));
+        writeBehind.submit(review("Premier"));
+        writeBehind.submit(review("Second"));
+
+        assertThrows(ReviewIngestionRejectedException.class, () -> writeBehind.submit(review("Troisieme")));
+        assertEquals(1, meterRegistry.get("reviews.write_behind.rejected").counter().count());
+    }
+
+    @Test
+    void invalidReviewFailsAloneWithoutLosingTheBatch() throws InterruptedException {
+        CvReviewWriteBehind writeBehind = writeBehind(true, 100, 10, Duration.ofMillis(200));
+        ReviewSubmission valid = writeBehind.submit(review("Valide"));
+        // Trop long pour la colonne author_name (100) : l'INSERT groupe echoue
+        ReviewSubmission invalid = writeBehind.submit(review("x".repeat(150)));
+        ReviewSubmission other = writeBehind.submit(review("Autre"));
+        writeBehind.shutdown();
+
+        assertEquals(2, count());
+        assertEquals(ReviewSubmission.Status.STORED, writeBehind.status(valid.getTrackingId()).orElseThrow().getStatus());
+        assertEquals(ReviewSubmission.Status.STORED, writeBehind.status(other.getTrackingId()).orElseThrow().getStatus());
+        assertEquals(ReviewSubmission.Status.FAILED, writeBehind.status(invalid.getTrackingId()).orElseThrow().getStatus());
+        assertEquals(1, meterRegistry.get("reviews.write_behind.failed").counter().count());
+    }
+
+    @Test
+    void listenerFailureNeitherDuplicatesNorFailsStoredReviews() throws InterruptedException {
+        // Ecouteur deja arrete (ex. executeur du flux SSE ferme pendant la vidange de fin)
+        CvReviewWriteBehind writeBehind = writeBehind(true, 100, 10, Duration.ofMillis(200), event -> {
+            throw new RejectedExecutionException("flux arrete");
+        });
+        List<ReviewSubmission> submissions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            submissions.add(writeBehind.submit(review("Auteur " + i)));
+        }
+        writeBehind.shutdown();
+
+        assertEquals(5, count());
+        for (ReviewSubmission submission : submissions) {
+            assertEquals(ReviewSubmission.Status.STORED,
+                    writeBehind.status(submission.getTrackingId()).orElseThrow().getStatus());
+        }
+        assertEquals(0, meterRegistry.get("reviews.write_behind.failed").counter().count());
+    }
+
+    private CvReviewWriteBehind writeBehind(boolean enabled, int capacity, int batchSize, Duration maxDelay) {
+        return writeBehind(enabled, capacity, batchSize, maxDelay, events::add);
+    }
+
+    private CvReviewWriteBehind writeBehind(boolean enabled, int capacity, int batchSize, Duration maxDelay,
+                                            ApplicationEventPublisher publisher) {
+        CvReviewWriteBehind writeBehind = new CvReviewWriteBehind(enabled, capacity, batchSize, maxDelay,
+                Duration.ofMinutes(10), jdbcTemplate, transactionManager, publisher, meterRegistry);
+        writers.add(writeBehind);
+        return writeBehind;
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cv_reviews", Long.class);
+    }
+
+    private static CvReview review(String author) {
+        return CvReview.builder()
+                .authorName(author)
+                .comment("Tres bon CV, bien structure")
+                .rating(4)
+                .build();
+    }
+}
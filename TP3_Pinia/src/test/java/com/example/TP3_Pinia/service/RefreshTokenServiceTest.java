@@ -0,0 +1,135 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.model.RefreshToken;
+import com.example.TP3_Pinia.model.User;
+import com.example.TP3_Pinia.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshTokenServiceTest {
+
+    private final User user = User.builder().id(1L).username("admin").build();
+    private final List<RefreshToken> tokens = new ArrayList<>();
+    private final RefreshTokenService service =
+            new RefreshTokenService(repository(tokens), Duration.ofDays(7));
+
+    @Test
+    void onlyTheHashIsStored() {
+        String raw = service.issue(user);
+
+        assertEquals(1, tokens.size());
+        assertEquals(64, tokens.get(0).getTokenHash().length());
+        assertNotEquals(raw, tokens.get(0).getTokenHash());
+        assertFalse(tokens.get(0).getTokenHash().contains(raw));
+    }
+
+    @Test
+    void rotationRevokesThePresentedTokenAndKeepsTheFamily() {
+        String first = service.issue(user);
+
+        RefreshTokenService.Rotation rotation = service.rotate(first).orElseThrow();
+
+        assertSame(user, rotation.getUser());
+        assertNotEquals(first, rotation.getRefreshToken());
+        assertEquals(2, tokens.size());
+        assertTrue(tokens.get(0).isRevoked());
+        assertFalse(tokens.get(1).isRevoked());
+        assertEquals(tokens.get(0).getFamily(), tokens.get(1).getFamily());
+
+        // Le nouveau jeton tourne a son tour
+        assertTrue(service.rotate(rotation.getRefreshToken()).isPresent());
+    }
+
+    @Test
+    void reuseOfARotatedTokenRevokesTheWholeFamily() {
+        String first = service.issue(user);
+        String second = service.rotate(first).orElseThrow().getRefreshToken();
+        String otherSession = service.issue(user);
+
+        // Rejeu de l'ancien jeton (vol) : refus et fermeture de la session
+        assertTrue(service.rotate(first).isEmpty());
+        assertTrue(service.rotate(second).isEmpty());
+
+        // Les autres sessions du meme utilisateur ne sont pas touchees
+        assertTrue(service.rotate(otherSession).isPresent());
+    }
+
+    @Test
+    void unknownBlankAndExpiredTokensAreRefused() {
+        assertTrue(service.rotate(null).isEmpty());
+        assertTrue(service.rotate(" ").isEmpty());
+        assertTrue(service.rotate("inconnu").isEmpty());
+
+        RefreshTokenService expiring = new RefreshTokenService(repository(tokens), Duration.ofSeconds(-1));
+        String expired = expiring.issue(user);
+        assertTrue(expiring.rotate(expired).isEmpty());
+        assertEquals(1, tokens.size());
+    }
+
+    @Test
+    void logoutRevokesTheSession() {
+        String first = service.issue(user);
+        String second = service.rotate(first).orElseThrow().getRefreshToken();
+
+        service.revoke(first);
+
+        assertTrue(tokens.stream().allMatch(RefreshToken::isRevoked));
+        assertTrue(service.rotate(second).isEmpty());
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredTokens() {
+        String active = service.issue(user);
+        new RefreshTokenService(repository(tokens), Duration.ofSeconds(-1)).issue(user);
+
+        service.purgeExpired();
+
+        assertEquals(1, tokens.size());
+        assertTrue(service.rotate(active).isPresent());
+    }
+
+    // Depot en memoire : seules les methodes appelees par le service sont implementees
+    private static RefreshTokenRepository repository(List<RefreshToken> tokens) {
+        return (RefreshTokenRepository) Proxy.newProxyInstance(
+                RefreshTokenRepository.class.getClassLoader(),
+                new Class<?>[]{RefreshTokenRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByTokenHash" -> tokens.stream()
+                            .filter(token -> token.getTokenHash().equals(args[0]))
+                            .findFirst();
+                    case "revokeIfActive" -> update(tokens, token -> token.getId().equals(args[0]));
+                    case "revokeFamily" -> update(tokens, token -> token.getFamily().equals(args[0]));
+                    case "deleteExpired" -> {
+                        int before = tokens.size();
+                        tokens.removeIf(token -> token.getExpiresAt().isBefore((Instant) args[0]));
+                        yield before - tokens.size();
+                    }
+                    case "save" -> {
+                        RefreshToken token = (RefreshToken) args[0];
+                        token.setId((long) tokens.size() + 1);
+                        tokens.add(token);
+                        yield token;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static int update(List<RefreshToken> tokens, Predicate<RefreshToken> filter) {
+        int updated = 0;
+        for (RefreshToken token : tokens) {
+            if (!token.isRevoked() && filter.test(token)) {
+                token.setRevoked(true);
+                updated++;
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.TP3_Pinia.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadLockTest {
+
+    private final ReloadLock lock = new ReloadLock();
+    private final AtomicInteger applied = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void withoutTransactionTheAdjustmentIsImmediate() {
+        lock.applyAtCommit(applied::incrementAndGet);
+
+        assertEquals(1, applied.get());
+        // Verrou rendu : un rechargement passe aussitot
+        lock.reload(applied::incrementAndGet);
+        assertEquals(2, applied.get());
+    }
+
+    @Test
+    void reloadWaitsUntilTheCommittedWriteIsApplied() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        lock.applyAtCommit(applied::incrementAndGet);
+        assertEquals(0, applied.get());
+
+        // Ecriture en cours de validation : le rechargement attend
+        CompletableFuture<Integer> reload = CompletableFuture.supplyAsync(() -> {
+            AtomicInteger seen = new AtomicInteger();
+            lock.reload(() -> seen.set(applied.get()));
+            return seen.get();
+        });
+        assertThrows(TimeoutException.class, () -> reload.get(200, TimeUnit.MILLISECONDS));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(1, applied.get());
+        assertEquals(1, reload.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rolledBackWritesAreNotAppliedAndReleaseTheLock() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        lock.applyAtCommit(applied::incrementAndGet);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0, applied.get());
+        CompletableFuture.runAsync(() -> lock.reload(() -> { })).get(5, TimeUnit.SECONDS);
+    }
+
+    // Fin de transaction telle que la declenche le gestionnaire de transactions
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
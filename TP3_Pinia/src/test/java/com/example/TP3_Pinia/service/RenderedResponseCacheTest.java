@@ -0,0 +1,120 @@
+package com.example.TP3_Pinia.service;
+
+import com.example.TP3_Pinia.event.ChangeType;
+import com.example.TP3_Pinia.event.CvReviewChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedResponseCacheTest {
+
+    private static final String GZIP = "gzip, deflate, br";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ResourceVersions resourceVersions = new ResourceVersions();
+    private final RenderedResponseCache cache = new RenderedResponseCache(objectMapper,
+            DataSize.ofMegabytes(1), DataSize.ofBytes(256), new SimpleMeterRegistry());
+
+    // Assez gros pour depasser le seuil de compression
+    private final List<String> largeBody = Collections.nCopies(100, "Les Miserables");
+
+    @Test
+    void gzipVariantHasItsOwnEtag() throws Exception {
+        ResourceVersions.Version version = resourceVersions.reviews();
+        RenderedResponseCache.Rendered rendered = cache.render("k", version, largeBody, null);
+
+        Exchange identity = write(rendered, null, null);
+        Exchange gzip = write(rendered, GZIP, null);
+
+        assertEquals(version.getEtag(), identity.etag());
+        assertEquals(version.getEtag().replaceAll("\"$", "-gz\""), gzip.etag());
+        assertEquals("gzip", gzip.entity().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(identity.entity().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(objectMapper.writeValueAsBytes(largeBody), identity.entity().getBody());
+        assertArrayEquals(identity.entity().getBody(),
+                new GZIPInputStream(new ByteArrayInputStream(gzip.entity().getBody())).readAllBytes());
+    }
+
+    @Test
+    void notModifiedOnlyForTheVariantTheClientHolds() {
+        RenderedResponseCache.Rendered rendered = cache.render("k", resourceVersions.reviews(), largeBody, null);
+        String gzipEtag = write(rendered, GZIP, null).etag();
+        String identityEtag = write(rendered, null, null).etag();
+
+        Exchange revalidated = write(rendered, GZIP, gzipEtag);
+        assertNull(revalidated.entity());
+        assertEquals(304, revalidated.response().getStatus());
+        assertEquals(gzipEtag, revalidated.etag());
+        // Un cache partage doit savoir que la reponse depend de Accept-Encoding, 304 compris
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, revalidated.response().getHeader(HttpHeaders.VARY));
+
+        // ETag de l'autre variante : corps complet, jamais un 304 sur des octets differents
+        Exchange switched = write(rendered, GZIP, identityEtag);
+        assertNotNull(switched.entity());
+        assertEquals("gzip", switched.entity().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotNull(write(rendered, null, gzipEtag).entity());
+        assertNull(write(rendered, null, identityEtag).entity());
+    }
+
+    @Test
+    void smallBodiesAndRefusedGzipUseTheIdentityVariant() {
+        ResourceVersions.Version version = resourceVersions.reviews();
+        RenderedResponseCache.Rendered small = cache.render("small", version, List.of("court"), null);
+        RenderedResponseCache.Rendered large = cache.render("large", version, largeBody, null);
+
+        Exchange uncompressed = write(small, GZIP, null);
+        assertEquals(version.getEtag(), uncompressed.etag());
+        assertNull(uncompressed.entity().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        assertEquals(version.getEtag(), write(large, "gzip;q=0, identity", null).etag());
+        assertEquals(version.getEtag(), write(large, "br", null).etag());
+    }
+
+    @Test
+    void entriesRenderedForAnOlderVersionAreNotServed() {
+        ResourceVersions.Version before = resourceVersions.reviews();
+        String key = RenderedResponseCache.key(RenderedResponseCache.REVIEWS, "all");
+        cache.render(key, before, largeBody, null);
+        assertNotNull(cache.get(key, before));
+
+        CvReviewChangedEvent event = new CvReviewChangedEvent(ChangeType.CREATED, null, null);
+        resourceVersions.onReviewChanged(event);
+        assertNull(cache.get(key, resourceVersions.reviews()));
+
+        // L'invalidation de l'espace retire aussi l'entree elle-meme
+        cache.onReviewChanged(event);
+        assertNull(cache.get(key, before));
+    }
+
+    private Exchange write(RenderedResponseCache.Rendered rendered, String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cv-reviews");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<byte[]> entity = rendered.write(ResponseEntity.ok(), acceptEncoding,
+                new ServletWebRequest(request, response));
+        return new Exchange(entity, response);
+    }
+
+    private record Exchange(ResponseEntity<byte[]> entity, MockHttpServletResponse response) {
+
+        // checkNotModified pose l'ETag de la variante sur la reponse servlet (200 comme 304)
+        String etag() {
+            return response.getHeader(HttpHeaders.ETAG);
+        }
+    }
+}
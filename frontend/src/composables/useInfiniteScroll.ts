@@ -0,0 +1,32 @@
+// src/composables/useInfiniteScroll.ts
+import { onBeforeUnmount, ref, watch } from 'vue'
+
+// Appelle loadMore quand l'element sentinelle (fin de liste) devient visible.
+// La sentinelle est retiree (v-if) pendant le chargement : recreee ensuite, elle est
+// observee a nouveau, et une page encore trop courte declenche la suivante.
+export function useInfiniteScroll(loadMore: () => Promise<void>) {
+  const sentinel = ref<HTMLElement | null>(null)
+
+  // Marge : la page suivante est demandee un peu avant d'atteindre le bas
+  const observer = new IntersectionObserver(
+    (entries) => {
+      if (entries.some((entry) => entry.isIntersecting)) {
+        loadMore()
+      }
+    },
+    { rootMargin: '400px' }
+  )
+
+  watch(sentinel, (element, previous) => {
+    if (previous) {
+      observer.unobserve(previous)
+    }
+    if (element) {
+      observer.observe(element)
+    }
+  })
+
+  onBeforeUnmount(() => observer.disconnect())
+
+  return { sentinel }
+}
@@ -1,6 +1,8 @@
 // src/services/api.ts
 import axios from 'axios'
+import type { InternalAxiosRequestConfig } from 'axios'
 import router from '@/router'
+import type { AuthResponse } from '@/types'
 
 const api = axios.create({
     baseURL: '/api',
@@ -24,14 +26,52 @@ api.interceptors.request.use(
     (error) => Promise.reject(error)
 )
 
+// RAFRAÎCHISSEMENT DU TOKEN
+// Un seul appel à /auth/refresh à la fois, partagé par les requêtes en échec
+let refreshing: Promise<string | null> | null = null
+
+function refreshAccessToken(): Promise<string | null> {
+    const refreshToken = localStorage.getItem('refreshToken')
+    if (!refreshToken) return Promise.resolve(null)
+
+    if (!refreshing) {
+        // axios brut : pas d'intercepteur, pas de boucle sur un 401
+        refreshing = axios
+            .post<AuthResponse>('/api/auth/refresh', { refreshToken })
+            .then(({ data }) => {
+                localStorage.setItem('token', data.token)
+                localStorage.setItem('refreshToken', data.refreshToken)
+                return data.token
+            })
+            .catch(() => null)
+            .finally(() => {
+                refreshing = null
+            })
+    }
+    return refreshing
+}
+
 // INTERCEPTEUR DE RÉPONSE
-// Gère les erreurs 401 (non authentifié)
+// Gère les erreurs 401 : token d'accès expiré -> rafraîchissement puis nouvel essai
 api.interceptors.response.use(
     (response) => response,
-    (error) => {
+    async (error) => {
+        const original = error?.config as (InternalAxiosRequestConfig & { _retry?: boolean }) | undefined
+        const isAuthCall = original?.url?.startsWith('/auth/')
+
+        if (error?.response?.status === 401 && original && !original._retry && !isAuthCall) {
+            original._retry = true
+            const token = await refreshAccessToken()
+            if (token) {
+                original.headers.Authorization = `Bearer ${token}`
+                return api(original)
+            }
+        }
+
         if (error?.response?.status === 401) {
-            // Token expiré ou invalide
+            // Session expirée ou révoquée
             localStorage.removeItem('token')
+            localStorage.removeItem('refreshToken')
             localStorage.removeItem('user')
 
             // Redirection vers la page de login
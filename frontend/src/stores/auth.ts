@@ -41,14 +41,21 @@ export const useAuthStore = defineStore('auth', () => {
 
         // Persistance
         localStorage.setItem('token', data.token)
+        localStorage.setItem('refreshToken', data.refreshToken)
         localStorage.setItem('user', JSON.stringify(user.value))
     }
 
-    // Déconnexion
+    // Déconnexion (révocation de la session côté serveur, sans attendre)
     function logout(): void {
+        const refreshToken = localStorage.getItem('refreshToken')
+        if (refreshToken) {
+            api.post('/auth/logout', { refreshToken }).catch(() => undefined)
+        }
+
         token.value = null
         user.value = null
         localStorage.removeItem('token')
+        localStorage.removeItem('refreshToken')
         localStorage.removeItem('user')
     }
 
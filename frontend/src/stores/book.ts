@@ -1,7 +1,10 @@
 import { defineStore } from 'pinia'
 import { ref, computed } from 'vue'
 import api from '@/services/api'
-import type { Book, BookCategory } from '@/types'
+import type { Book, BookBatch, BookCategory, BookChanges, BookFacets, BookFilters } from '@/types'
+
+// Taille d'une page de GET /books : la suite est chargée au défilement
+const PAGE_SIZE = 50
 
 export const useBooksStore = defineStore('books', () => {
     // =====================
@@ -12,6 +15,18 @@ export const useBooksStore = defineStore('books', () => {
     const loading = ref(false)
     const error = ref<string | null>(null)
 
+    // Curseur de la page suivante (X-Next-Cursor), null quand tout est chargé
+    const nextCursor = ref<string | null>(null)
+    const loadingMore = ref(false)
+    // Échec d'une page suivante : plus de chargement automatique, l'utilisateur relance
+    const loadMoreFailed = ref(false)
+
+    // Compteurs du catalogue complet (calcules par le serveur)
+    const facets = ref<BookFacets | null>(null)
+
+    // Position dans le journal des modifications du catalogue chargé
+    const changeSeq = ref<number | null>(null)
+
     // Filtres
     const searchQuery = ref('')
     const selectedCategory = ref<BookCategory | null>(null)
@@ -37,10 +52,25 @@ export const useBooksStore = defineStore('books', () => {
         })
     })
 
-    // Statistiques par catégorie
+    // Reste-t-il des pages à charger ?
+    const hasMore = computed(() => nextCursor.value !== null)
+
+    // Nombre total de livres du catalogue (et non de la page chargée)
+    const totalBooks = computed(() => facets.value?.total ?? books.value.length)
+
+    // Statistiques par catégorie : facettes serveur si disponibles
     const categoryStats = computed(() => {
         const stats: Record<string, number> = {}
 
+        if (facets.value) {
+            for (const [category, count] of Object.entries(facets.value.categories)) {
+                if (count > 0) {
+                    stats[category] = count
+                }
+            }
+            return stats
+        }
+
         for (const book of books.value) {
             stats[book.category] = (stats[book.category] || 0) + 1
         }
@@ -53,12 +83,32 @@ export const useBooksStore = defineStore('books', () => {
     // =====================
 
     async function fetchBooks(): Promise<void> {
+        // Catalogue déjà chargé : seulement les modifications depuis le dernier chargement
+        if (changeSeq.value !== null && books.value.length > 0) {
+            try {
+                await syncBooks()
+                return
+            } catch {
+                // Journal inconnu (410) ou erreur : rechargement complet
+                changeSeq.value = null
+            }
+        }
+
         loading.value = true
         error.value = null
+        nextCursor.value = null
+        loadMoreFailed.value = false
 
         try {
-            const response = await api.get<Book[]>('/books')
+            // Point de reprise lu avant la liste : aucune modification ne peut être manquée
+            const baseline = await api.get<BookChanges>('/books/changes')
+            const [response] = await Promise.all([
+                api.get<Book[]>('/books', { params: { limit: PAGE_SIZE } }),
+                fetchFacets()
+            ])
             books.value = response.data
+            nextCursor.value = response.headers['x-next-cursor'] || null
+            changeSeq.value = baseline.data.nextSince
         } catch (e) {
             error.value = 'Erreur lors du chargement des livres'
             throw e
@@ -67,6 +117,76 @@ export const useBooksStore = defineStore('books', () => {
         }
     }
 
+    // Page suivante (défilement) : le curseur reste valide même si le catalogue a changé
+    async function loadMoreBooks(): Promise<void> {
+        if (nextCursor.value === null || loadingMore.value) {
+            return
+        }
+        loadingMore.value = true
+        loadMoreFailed.value = false
+
+        try {
+            const response = await api.get<Book[]>('/books', {
+                params: { limit: PAGE_SIZE, after: nextCursor.value }
+            })
+            // Un livre déjà présent (ajouté localement entre-temps) est remplacé, pas dupliqué
+            const known = new Set(books.value.map((book) => book.id))
+            const loaded = new Map(response.data.map((book) => [book.id, book]))
+            books.value = books.value
+                .map((book) => loaded.get(book.id) ?? book)
+                .concat(response.data.filter((book) => !known.has(book.id)))
+            nextCursor.value = response.headers['x-next-cursor'] || null
+        } catch {
+            // Curseur conservé : la même page est redemandée à la relance
+            loadMoreFailed.value = true
+        } finally {
+            loadingMore.value = false
+        }
+    }
+
+    // Applique les créations, modifications et suppressions depuis changeSeq
+    async function syncBooks(): Promise<void> {
+        let changed = false
+        let more = true
+
+        while (more) {
+            const { data } = await api.get<BookChanges>('/books/changes', {
+                params: { since: changeSeq.value }
+            })
+
+            for (const book of data.upserts) {
+                const index = books.value.findIndex((b) => b.id === book.id)
+                if (index !== -1) {
+                    books.value[index] = book
+                } else {
+                    books.value.push(book)
+                }
+            }
+            if (data.deletions.length > 0) {
+                const deleted = new Set(data.deletions)
+                books.value = books.value.filter((b) => !deleted.has(b.id!))
+            }
+
+            changed = changed || data.upserts.length > 0 || data.deletions.length > 0
+            changeSeq.value = data.nextSince
+            more = data.hasMore
+        }
+
+        if (changed) {
+            fetchFacets()
+        }
+    }
+
+    // Les facettes ne bloquent pas l'affichage : en cas d'erreur on garde le calcul local
+    async function fetchFacets(): Promise<void> {
+        try {
+            const response = await api.get<BookFacets>('/books/facets')
+            facets.value = response.data
+        } catch {
+            facets.value = null
+        }
+    }
+
     async function fetchBook(id: number): Promise<void> {
         loading.value = true
         error.value = null
@@ -82,15 +202,50 @@ export const useBooksStore = defineStore('books', () => {
         }
     }
 
+    // Plusieurs livres en un seul appel (au lieu d'un GET /books/{id} par livre)
+    async function fetchBooksByIds(ids: number[]): Promise<BookBatch> {
+        if (ids.length === 0) {
+            return { books: [], missing: [] }
+        }
+        const response = await api.get<BookBatch>('/books', {
+            params: { ids: ids.join(',') }
+        })
+        return response.data
+    }
+
+    // Filtrage cote serveur (categorie + plages de prix / d'annee) au lieu de tout telecharger
+    async function fetchFilteredBooks(filters: BookFilters, limit = 50): Promise<Book[]> {
+        const response = await api.get<Book[]>('/books', {
+            params: { ...filters, limit }
+        })
+        return response.data
+    }
+
     async function createBook(book: Omit<Book, 'id'>): Promise<Book> {
         const response = await api.post<Book>('/books', book)
         books.value.push(response.data)
+        fetchFacets()
         return response.data
     }
 
     async function updateBook(id: number, book: Partial<Book>): Promise<Book> {
         const response = await api.put<Book>(`/books/${id}`, book)
 
+        const index = books.value.findIndex((b) => b.id === id)
+        if (index !== -1) {
+            books.value[index] = response.data
+        }
+        fetchFacets()
+
+        return response.data
+    }
+
+    // Envoi de la couverture (corps brut) ; le serveur renvoie le livre avec son nouveau coverUrl
+    async function uploadCover(id: number, file: File): Promise<Book> {
+        const response = await api.put<Book>(`/books/${id}/cover`, file, {
+            headers: { 'Content-Type': file.type }
+        })
+
         const index = books.value.findIndex((b) => b.id === id)
         if (index !== -1) {
             books.value[index] = response.data
@@ -102,6 +257,7 @@ export const useBooksStore = defineStore('books', () => {
     async function deleteBook(id: number): Promise<void> {
         await api.delete(`/books/${id}`)
         books.value = books.value.filter((b) => b.id !== id)
+        fetchFacets()
     }
 
     // Méthodes de filtrage
@@ -119,18 +275,29 @@ export const useBooksStore = defineStore('books', () => {
         currentBook,
         loading,
         error,
+        loadingMore,
+        loadMoreFailed,
         searchQuery,
         selectedCategory,
+        facets,
 
         // Getters
         filteredBooks,
+        hasMore,
+        totalBooks,
         categoryStats,
 
         // Actions
         fetchBooks,
+        loadMoreBooks,
+        syncBooks,
+        fetchFacets,
         fetchBook,
+        fetchBooksByIds,
+        fetchFilteredBooks,
         createBook,
         updateBook,
+        uploadCover,
         deleteBook,
         setSearchQuery,
         setCategory
@@ -29,6 +29,37 @@ export const BookCategoryLabels: Record<BookCategory, string> = {
     [BookCategory.BIOGRAPHIE]: "Biographie",
 }
 
+// Lecture groupée (GET /api/books?ids=...)
+export interface BookBatch {
+    books: Book[]
+    missing: number[]
+}
+
+// Filtres combinables de GET /api/books (bornes incluses)
+export interface BookFilters {
+    category?: BookCategory
+    minPrice?: number
+    maxPrice?: number
+    fromYear?: number
+    toYear?: number
+}
+
+// Modifications du catalogue depuis un seq (GET /api/books/changes)
+export interface BookChanges {
+    upserts: Book[]
+    deletions: number[]
+    nextSince: number
+    hasMore: boolean
+}
+
+// Facettes du catalogue (GET /api/books/facets)
+export interface BookFacets {
+    total: number
+    categories: Record<string, number>
+    decades: Record<string, number>
+    prices: Record<string, number>
+}
+
 // Types pour l'authentification
 export interface User {
     username: string
@@ -42,6 +73,9 @@ export interface LoginCredentials {
 
 export interface AuthResponse {
     token: string
+    refreshToken: string
+    // Validite du token d'acces (secondes)
+    expiresIn: number
     username: string
     role: string
 }
@@ -59,4 +93,6 @@ export interface CvReview {
 export interface CvReviewStats {
     averageRating: number
     totalReviews: number
+    // Nombre d'avis par note ("1" à "5")
+    distribution?: Record<string, number>
 }